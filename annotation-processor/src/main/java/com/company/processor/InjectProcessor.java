@@ -0,0 +1,169 @@
+package com.company.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a factory for every class with exactly one constructor annotated with
+ * {@code com.company.annotation.Inject}. The factory implements {@code com.company.container.Instantiator}
+ * and calls the constructor directly, so the injector does not need reflection to build the bean.
+ * The factory of {@code com.example.Bean} is {@code com.example.Bean$$InjectFactory}.
+ * All classes with a factory are also listed in the {@code META-INF/com.company.inject.index} resource,
+ * which the injector reads to bind them automatically.
+ */
+@SupportedAnnotationTypes(InjectProcessor.INJECT_ANNOTATION)
+public class InjectProcessor extends AbstractProcessor {
+
+    static final String INJECT_ANNOTATION = "com.company.annotation.Inject";
+    static final String FACTORY_SUFFIX = "$$InjectFactory";
+    static final String INDEX_RESOURCE = "META-INF/com.company.inject.index";
+
+    private final Set<String> indexLines = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            Map<TypeElement, ExecutableElement> constructors = new HashMap<>();
+            Set<TypeElement> ambiguous = new HashSet<>();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CONSTRUCTOR) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element.getEnclosingElement();
+                if (constructors.put(type, (ExecutableElement) element) != null) {
+                    ambiguous.add(type);
+                }
+            }
+            for (Map.Entry<TypeElement, ExecutableElement> entry : constructors.entrySet()) {
+                if (!ambiguous.contains(entry.getKey()) && isSupported(entry.getKey(), entry.getValue())) {
+                    writeFactory(entry.getKey(), entry.getValue());
+                    indexLines.add(createIndexLine(entry.getKey()));
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !indexLines.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * Index line is the binary name of the class followed by the binary names of its interfaces, separated by spaces.
+     * Interfaces of the JDK, such as AutoCloseable or Serializable, are left out, the injector must not bind them.
+     * @return Index line of the class.
+     */
+    private String createIndexLine(TypeElement type) {
+        StringBuilder line = new StringBuilder(processingEnv.getElementUtils().getBinaryName(type));
+        for (TypeMirror intf : type.getInterfaces()) {
+            Element element = processingEnv.getTypeUtils().asElement(intf);
+            if (element instanceof TypeElement) {
+                String name = processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+                if (!name.startsWith("java.") && !name.startsWith("javax.")) {
+                    line.append(' ').append(name);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Writes all classes with an injectable constructor to one resource, so the injector can find them
+     * at runtime by reading it instead of scanning the classpath.
+     */
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = file.openWriter()) {
+                for (String line : indexLines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Can not write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The injector only uses public constructors, inner classes can not be created without an outer instance.
+     * @return true if a factory can call the constructor.
+     */
+    private boolean isSupported(TypeElement type, ExecutableElement constructor) {
+        return constructor.getModifiers().contains(Modifier.PUBLIC)
+                && !type.getModifiers().contains(Modifier.PRIVATE)
+                && !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC));
+    }
+
+    private void writeFactory(TypeElement type, ExecutableElement constructor) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String factoryName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + FACTORY_SUFFIX;
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("public final class ").append(factoryName)
+                .append(" implements com.company.container.Instantiator {\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("    public Object newInstance(Object[] arguments) throws java.lang.reflect.InvocationTargetException {\n")
+                .append("        try {\n")
+                .append("            return new ").append(type.getQualifiedName()).append("(");
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                source.append(", ");
+            }
+            source.append("(").append(processingEnv.getTypeUtils().erasure(parameters.get(i).asType()))
+                    .append(") arguments[").append(i).append("]");
+        }
+        source.append(");\n")
+                .append("        } catch (Throwable e) {\n")
+                .append("            throw new java.lang.reflect.InvocationTargetException(e);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+        String qualifiedFactoryName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedFactoryName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Can not generate " + qualifiedFactoryName + ": " + e.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.company.benchmark;
+
+import com.company.benchmark.graph.GeneratedGraph;
+import com.company.container.Injector;
+import com.company.container.impl.InjectorImpl;
+import com.company.enm.BeanScope;
+
+/**
+ * Builds injectors over the classes generated by the generateJmhGraph task.
+ */
+final class BenchmarkGraphs {
+
+    private BenchmarkGraphs() {
+    }
+
+    /**
+     * @return Injector with the first depth chain nodes bound, the last node depends on all previous ones.
+     */
+    static Injector chain(int depth, BeanScope scope) {
+        Injector injector = new InjectorImpl();
+        for (int i = 0; i < depth; i++) {
+            bind(injector, GeneratedGraph.CHAIN[i], scope);
+        }
+        return injector;
+    }
+
+    static Class<?> chainTop(int depth) {
+        return GeneratedGraph.CHAIN[depth - 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    static void bind(Injector injector, Class<?> type, BeanScope scope) {
+        Class<Object> beanType = (Class<Object>) type;
+        if (scope == BeanScope.SINGLETON) {
+            injector.bindSingleton(beanType, beanType);
+        } else {
+            injector.bind(beanType, beanType);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.company.benchmark;
+
+import com.company.container.Injector;
+import com.company.container.impl.InjectorImpl;
+import com.company.testclass.testbean.Correct;
+import com.company.testclass.testbean.TestClass;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads resolving the same bindings of one injector, before and after freeze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ContentionBenchmark {
+
+    @Param({"false", "true"})
+    private boolean frozen;
+
+    private Injector injector;
+
+    @Setup
+    public void setUp() {
+        injector = new InjectorImpl();
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bindSingleton(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        if (frozen) {
+            injector.freeze();
+        }
+    }
+
+    @Benchmark
+    public SecondDependency singleton() {
+        return injector.getProvider(SecondDependency.class).getInstance();
+    }
+
+    @Benchmark
+    public TestClass prototype() {
+        return injector.getProvider(TestClass.class).getInstance();
+    }
+}
@@ -0,0 +1,38 @@
+package com.company.benchmark;
+
+import com.company.container.Provider;
+import com.company.enm.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a prototype at the end of a dependency chain, every call builds the whole chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeepChainBenchmark {
+
+    @Param({"10", "50", "100"})
+    private int depth;
+
+    private Provider<?> provider;
+
+    @Setup
+    public void setUp() {
+        provider = BenchmarkGraphs.chain(depth, BeanScope.PROTOTYPE).getProvider(BenchmarkGraphs.chainTop(depth));
+    }
+
+    @Benchmark
+    public Object buildChain() {
+        return provider.getInstance();
+    }
+}
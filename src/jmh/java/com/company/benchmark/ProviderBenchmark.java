@@ -0,0 +1,63 @@
+package com.company.benchmark;
+
+import com.company.container.Injector;
+import com.company.container.Provider;
+import com.company.container.impl.InjectorImpl;
+import com.company.enm.BeanScope;
+import com.company.testclass.testbean.Correct;
+import com.company.testclass.testbean.TestClass;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of a bean with two dependencies through getProvider, for singleton and prototype bindings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProviderBenchmark {
+
+    @Param({"SINGLETON", "PROTOTYPE"})
+    private BeanScope scope;
+
+    private Injector injector;
+    private Provider<TestClass> provider;
+
+    @Setup
+    public void setUp() {
+        injector = new InjectorImpl();
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        if (scope == BeanScope.SINGLETON) {
+            injector.bindSingleton(TestClass.class, Correct.class);
+        } else {
+            injector.bind(TestClass.class, Correct.class);
+        }
+        provider = injector.getProvider(TestClass.class);
+    }
+
+    @Benchmark
+    public Provider<TestClass> getProvider() {
+        return injector.getProvider(TestClass.class);
+    }
+
+    @Benchmark
+    public TestClass getProviderAndInstance() {
+        return injector.getProvider(TestClass.class).getInstance();
+    }
+
+    @Benchmark
+    public TestClass getInstanceFromCachedProvider() {
+        return provider.getInstance();
+    }
+}
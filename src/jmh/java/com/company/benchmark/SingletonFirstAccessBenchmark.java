@@ -0,0 +1,43 @@
+package com.company.benchmark;
+
+import com.company.container.Injector;
+import com.company.enm.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first access to a singleton chain, a fresh injector is created for every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+public class SingletonFirstAccessBenchmark {
+
+    @Param({"10", "50", "100"})
+    private int depth;
+
+    private Injector injector;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        injector = BenchmarkGraphs.chain(depth, BeanScope.SINGLETON);
+    }
+
+    @Benchmark
+    public Object firstAccess() {
+        return injector.getProvider(BenchmarkGraphs.chainTop(depth)).getInstance();
+    }
+}
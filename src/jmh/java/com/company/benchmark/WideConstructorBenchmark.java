@@ -0,0 +1,47 @@
+package com.company.benchmark;
+
+import com.company.benchmark.graph.GeneratedGraph;
+import com.company.benchmark.graph.WideBean;
+import com.company.container.Injector;
+import com.company.container.Provider;
+import com.company.container.impl.InjectorImpl;
+import com.company.enm.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a prototype whose constructor takes 20 dependencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WideConstructorBenchmark {
+
+    @Param({"SINGLETON", "PROTOTYPE"})
+    private BeanScope dependencyScope;
+
+    private Provider<WideBean> provider;
+
+    @Setup
+    public void setUp() {
+        Injector injector = new InjectorImpl();
+        for (Class<?> leaf : GeneratedGraph.LEAVES) {
+            BenchmarkGraphs.bind(injector, leaf, dependencyScope);
+        }
+        injector.bind(WideBean.class, WideBean.class);
+        provider = injector.getProvider(WideBean.class);
+    }
+
+    @Benchmark
+    public WideBean buildWideBean() {
+        return provider.getInstance();
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an init callback: a method without parameters called after the bean is built and its members are injected.
+ * A callback returning a {@code CompletableFuture} initializes the bean asynchronously,
+ * the bean is handed out once the future completes.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PostConstruct {
+}
@@ -0,0 +1,23 @@
+package com.company.annotation;
+
+import com.company.enm.BeanScope;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a module as the factory of its return type. The parameters of the method are injected.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Provides {
+
+    /**
+     * One of the built-in scopes: SINGLETON, PROTOTYPE, THREAD or REQUEST.
+     */
+    BeanScope scope() default BeanScope.PROTOTYPE;
+}
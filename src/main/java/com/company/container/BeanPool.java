@@ -0,0 +1,29 @@
+package com.company.container;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of the beans of a POOLED binding. Acquired beans are returned by closing the lease:
+ * <pre>
+ * try (Pooled&lt;Codec&gt; codec = injector.getPool(Codec.class).acquire()) {
+ *     codec.get().encode(message);
+ * }
+ * </pre>
+ */
+public interface BeanPool<T> {
+
+    /**
+     * Takes an idle bean or creates a new one. If the pool is exhausted and its policy is BLOCK,
+      waits until a bean is released.
+     * @return Lease of the bean.
+     */
+    Pooled<T> acquire();
+
+    /**
+     * Same as acquire(), but waits at most the given time.
+     * @return Lease of the bean or null, if no bean was released in time.
+     */
+    Pooled<T> tryAcquire(long timeout, TimeUnit unit) throws InterruptedException;
+
+    PoolStatistics getStatistics();
+}
@@ -0,0 +1,30 @@
+package com.company.container;
+
+/**
+ * Receives construction events of an injector. The injector calls the listener on the thread that builds the bean,
+ * so implementations must be thread safe and fast. If no listener is registered, no events are created at all.
+ */
+public interface InjectionListener {
+
+    /**
+     * @param key binding key of the bean.
+     * @param totalNanos time spent on the bean including its dependencies.
+     * @param selfNanos time spent in the constructor of the bean only.
+     */
+    default void onBeanConstructed(Key<?> key, long totalNanos, long selfNanos) {
+    }
+
+    /**
+     * @param key binding key of the singleton.
+     * @param nanos time from the first request of the singleton until it was ready.
+     */
+    default void onSingletonInitialized(Key<?> key, long nanos) {
+    }
+
+    /**
+     * @param key binding key of the bean that could not be built.
+     * @param failure exception thrown while building it.
+     */
+    default void onResolutionFailure(Key<?> key, Throwable failure) {
+    }
+}
@@ -1,13 +1,179 @@
 package com.company.container;
 
-import java.lang.reflect.InvocationTargetException;
+import com.company.enm.BeanScope;
+import com.company.enm.PoolPolicy;
 
-public interface Injector {
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
-    <T> Provider<T> getProvider(Class<T> type)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException;
+public interface Injector extends AutoCloseable {
+
+    <T> Provider<T> getProvider(Class<T> type);
+
+    /**
+     * Same as getProvider(Class), for a qualified or generic key.
+     */
+    <T> Provider<T> getProvider(Key<T> key);
+
+    /**
+     * @return Bean or an empty Optional, if the type is not bound.
+     */
+    <T> Optional<T> getOptional(Class<T> type);
+
+    <T> Optional<T> getOptional(Key<T> key);
 
     <T> void bind(Class<T> intf, Class<? extends T>impl);
 
+    /**
+     * Binds a qualified or generic key as a prototype.
+     */
+    <T> void bind(Key<T> key, Class<? extends T> impl);
+
     <T> void bindSingleton(Class<T> intf, Class<? extends T>impl);
+
+    /**
+     * Binds with one of the built-in scopes: SINGLETON, PROTOTYPE, THREAD or REQUEST.
+     * REQUEST scoped beans can only be requested inside a {@link RequestContext}.
+     */
+    <T> void bind(Class<T> intf, Class<? extends T> impl, BeanScope scope);
+
+    /**
+     * Binds a qualified or generic key with one of the built-in scopes.
+     */
+    <T> void bind(Key<T> key, Class<? extends T> impl, BeanScope scope);
+
+    /**
+     * Binds with a custom scope.
+     */
+    <T> void bind(Class<T> intf, Class<? extends T> impl, Scope scope);
+
+    /**
+     * Binds with POOLED scope, at most maxSize beans are in use at the same time.
+     */
+    <T> void bindPooled(Class<T> intf, Class<? extends T> impl, int maxSize);
+
+    /**
+     * Binds with POOLED scope, the policy decides what happens when all maxSize beans are in use.
+     */
+    <T> void bindPooled(Class<T> intf, Class<? extends T> impl, int maxSize, PoolPolicy policy);
+
+    /**
+     * Binds an existing object, it is returned for every request and nothing is built.
+     */
+    <T> void bindInstance(Class<T> intf, T instance);
+
+    <T> void bindInstance(Key<T> key, T instance);
+
+    /**
+     * Binds a factory, it is called for every request.
+     */
+    <T> void bindProvider(Class<T> intf, Supplier<? extends T> provider);
+
+    <T> void bindProvider(Key<T> key, Supplier<? extends T> provider);
+
+    /**
+     * Adds a prototype element to the {@code Set<T>} binding, which is injected into {@code Set<T>} parameters.
+     */
+    <T> void bindIntoSet(Class<T> type, Class<? extends T> impl);
+
+    /**
+     * Adds an element with one of the built-in scopes to the {@code Set<T>} binding.
+     */
+    <T> void bindIntoSet(Class<T> type, Class<? extends T> impl, BeanScope scope);
+
+    /**
+     * Adds a prototype element to the {@code Map<K, T>} binding, which is injected into {@code Map<K, T>} parameters.
+     */
+    <K, T> void bindIntoMap(Class<K> keyType, Class<T> type, K mapKey, Class<? extends T> impl);
+
+    /**
+     * Adds an element with one of the built-in scopes to the {@code Map<K, T>} binding.
+     */
+    <K, T> void bindIntoMap(Class<K> keyType, Class<T> type, K mapKey, Class<? extends T> impl, BeanScope scope);
+
+    /**
+     * Binds the {@code @Provides} methods of the module.
+     */
+    void install(Object module);
+
+    /**
+     * Binds every class with an {@code @Inject} constructor in the packages or their subpackages as a prototype,
+     * to itself and to each of its interfaces implemented by no other found class.
+     * JDK interfaces are never bound and keys that are already bound are left as they are.
+     * Classes are taken from the index written by the annotation processor at build time, the classpath is not scanned.
+     */
+    void autoBind(String... packages);
+
+    /**
+     * Same as autoBind(String...), but binds with one of the built-in scopes.
+     */
+    void autoBind(BeanScope scope, String... packages);
+
+    /**
+     * Injects the annotated fields and methods of an object that was not created by the injector.
+     */
+    void injectMembers(Object instance);
+
+    /**
+     * @return Pool of a POOLED binding.
+     */
+    <T> BeanPool<T> getPool(Class<T> type);
+
+    /**
+     * Drops the THREAD scoped beans of the current thread and closes the AutoCloseable ones.
+     * Threads of a pool live as long as the pool, so call it when a pooled thread finishes its task.
+     */
+    void releaseThreadScope();
+
+    /**
+     * Validates all bindings and makes the container immutable.
+     */
+    void freeze();
+
+    /**
+     * Validates all bindings, makes the container immutable and optionally builds all singletons.
+     */
+    void freeze(boolean instantiateSingletons);
+
+    /**
+     * Writes the validated binding graph of this frozen injector to the stream.
+     */
+    void saveSnapshot(OutputStream out) throws IOException;
+
+    /**
+     * Binds and freezes everything from a snapshot written by saveSnapshot(), skipping constructor discovery
+     * and validation for the classes that did not change since then.
+     */
+    void restoreSnapshot(InputStream in) throws IOException;
+
+    /**
+     * Freezes this injector and creates a child that overrides some of its bindings.
+     * Everything not bound in the child is delegated to this injector.
+     */
+    Injector createChild();
+
+    /**
+     * Builds all singletons in parallel on the common ForkJoinPool.
+     */
+    WarmUpReport warmUp();
+
+    /**
+     * Builds all singletons in parallel on the executor, each as soon as its dependencies are built.
+     */
+    WarmUpReport warmUp(Executor executor);
+
+    /**
+     * Closes the AutoCloseable singletons on the common ForkJoinPool, each after the beans depending on it.
+     */
+    @Override
+    void close();
+
+    /**
+     * Closes the AutoCloseable singletons on the executor, independent ones in parallel.
+     */
+    void close(Executor executor);
 }
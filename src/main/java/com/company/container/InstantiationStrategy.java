@@ -0,0 +1,12 @@
+package com.company.container;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Turns the constructor chosen for a binding into an {@link Instantiator}.
+ * Called once per binding, so implementations may do expensive preparation here.
+ */
+public interface InstantiationStrategy {
+
+    Instantiator createInstantiator(Constructor<?> constructor);
+}
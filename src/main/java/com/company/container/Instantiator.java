@@ -0,0 +1,14 @@
+package com.company.container;
+
+import java.lang.reflect.InvocationTargetException;
+
+public interface Instantiator {
+
+    /**
+     * Creates a new bean. Exceptions thrown by the constructor are wrapped in InvocationTargetException.
+     * @param arguments constructor arguments in parameter order.
+     * @return New bean.
+     */
+    Object newInstance(Object[] arguments)
+            throws InvocationTargetException, InstantiationException, IllegalAccessException;
+}
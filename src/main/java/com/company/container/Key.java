@@ -0,0 +1,196 @@
+package com.company.container;
+
+import com.company.annotation.Named;
+import com.company.annotation.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Binding key: a type, which may be generic, and an optional name or qualifier annotation.
+ * Keys created by the factory methods are interned and their hash is computed once,
+ * so looking up a key costs the same as looking up a class. The key of a class is cached in a ClassValue,
+ * qualified and generic keys are interned weakly, so neither keeps the class or its class loader alive.
+ * A generic type is captured by a subclass: {@code new Key<Cache<User>>() {}}.
+ */
+public class Key<T> {
+
+    private static final Map<Key<?>, WeakReference<Key<?>>> INTERNED = new WeakHashMap<>();
+    private static final ClassValue<Key<?>> CLASS_KEYS = new ClassValue<Key<?>>() {
+        @Override
+        protected Key<?> computeValue(Class<?> type) {
+            return new Key<>(type, null, null);
+        }
+    };
+
+    private final Type type;
+    private final Class<? super T> rawType;
+    private final String name;
+    private final Class<? extends Annotation> qualifier;
+    private final int hash;
+
+    /**
+     * Captures the type argument of the subclass.
+     */
+    @SuppressWarnings("unchecked")
+    protected Key() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalArgumentException("Key subclass must name its type argument");
+        }
+        this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+        this.rawType = (Class<? super T>) getRawType(type);
+        this.name = null;
+        this.qualifier = null;
+        this.hash = hash(type, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key(Type type, String name, Class<? extends Annotation> qualifier) {
+        this.type = type;
+        this.rawType = (Class<? super T>) getRawType(type);
+        this.name = name;
+        this.qualifier = qualifier;
+        this.hash = hash(type, name, qualifier);
+    }
+
+    /**
+     * @return Key of the class without a qualifier.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Key<T> of(Class<T> type) {
+        return (Key<T>) CLASS_KEYS.get(type);
+    }
+
+    /**
+     * @return Key of the type without a qualifier.
+     */
+    public static Key<?> of(Type type) {
+        return type instanceof Class ? of((Class<?>) type) : intern(new Key<>(type, null, null));
+    }
+
+    /**
+     * Key of an injection point, qualified by the {@link Named} or {@link Qualifier} annotation among the annotations.
+     * @return Key of the type.
+     */
+    public static Key<?> of(Type type, Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Named) {
+                return intern(new Key<>(type, ((Named) annotation).value(), null));
+            }
+            if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
+                return intern(new Key<>(type, null, annotation.annotationType()));
+            }
+        }
+        return of(type);
+    }
+
+    /**
+     * @return Key of the same type qualified by the name, same as {@code @Named(name)}.
+     */
+    public Key<T> named(String name) {
+        return intern(new Key<>(type, name, null));
+    }
+
+    /**
+     * @return Key of the same type qualified by the qualifier annotation.
+     */
+    public Key<T> qualifiedBy(Class<? extends Annotation> qualifier) {
+        if (!qualifier.isAnnotationPresent(Qualifier.class)) {
+            throw new IllegalArgumentException(qualifier.getName() + " is not a qualifier");
+        }
+        return intern(new Key<>(type, null, qualifier));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Class of the type, without type arguments.
+     */
+    public Class<? super T> getRawType() {
+        return rawType;
+    }
+
+    /**
+     * @return Name or null, if the key is not qualified by a name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Qualifier annotation or null, if the key is not qualified by an annotation.
+     */
+    public Class<? extends Annotation> getQualifier() {
+        return qualifier;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K extends Key<?>> K intern(K key) {
+        synchronized (INTERNED) {                       //keys are created when binding, not when resolving
+            WeakReference<Key<?>> reference = INTERNED.get(key);
+            Key<?> interned = reference != null ? reference.get() : null;
+            if (interned != null) {
+                return (K) interned;
+            }
+            INTERNED.put(key, new WeakReference<>(key));
+            return key;
+        }
+    }
+
+    private static int hash(Type type, String name, Class<? extends Annotation> qualifier) {
+        return 31 * (31 * type.hashCode() + Objects.hashCode(name)) + Objects.hashCode(qualifier);
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(
+                    getRawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        throw new IllegalArgumentException("Type " + type.getTypeName() + " can not be bound");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Key)) {
+            return false;
+        }
+        Key<?> key = (Key<?>) o;
+        return hash == key.hash && type.equals(key.type) && Objects.equals(name, key.name)
+                && qualifier == key.qualifier;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return Type name, followed by the name or the qualifier if there is one.
+     */
+    @Override
+    public String toString() {
+        if (name != null) {
+            return type.getTypeName() + " @Named(" + name + ")";
+        }
+        return qualifier != null ? type.getTypeName() + " @" + qualifier.getName() : type.getTypeName();
+    }
+}
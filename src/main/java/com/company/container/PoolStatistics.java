@@ -0,0 +1,52 @@
+package com.company.container;
+
+/**
+ * Snapshot of the counters of a {@link BeanPool}.
+ */
+public class PoolStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long waits;
+    private final int idle;
+
+    public PoolStatistics(long hits, long misses, long waits, int idle) {
+        this.hits = hits;
+        this.misses = misses;
+        this.waits = waits;
+        this.idle = idle;
+    }
+
+    /**
+     * @return Acquisitions served with an idle bean.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Acquisitions that had to create a new bean.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Acquisitions that had to wait for a bean to be released.
+     */
+    public long getWaits() {
+        return waits;
+    }
+
+    /**
+     * @return Beans currently in the pool and not in use.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + " misses=" + misses + " waits=" + waits + " idle=" + idle;
+    }
+}
@@ -0,0 +1,13 @@
+package com.company.container;
+
+/**
+ * Bean borrowed from a {@link BeanPool}. Closing the lease returns the bean to the pool,
+ * the bean must not be used afterwards.
+ */
+public interface Pooled<T> extends AutoCloseable {
+
+    T get();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,165 @@
+package com.company.container;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Unit of work for REQUEST scoped beans. A context is entered explicitly and closed when the work is done,
+ * closing it closes the AutoCloseable beans created in it, in reverse creation order.
+ * The context of the current thread is kept in a ThreadLocal. Work handed to other threads,
+ * for example virtual threads, is attached to the same context with run() or call().
+ * No locks are held while beans are built, so a thread is never pinned by the context. A short lock orders
+ * registering a new bean against close(), so a bean created while the context closes is closed too.
+ */
+public final class RequestContext implements AutoCloseable {
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<Object, Object> beans = new ConcurrentHashMap<>();
+    private final Deque<Object> creationOrder = new ConcurrentLinkedDeque<>();
+    private final Object lock = new Object();
+    private final RequestContext previous;
+    private final Thread owner;
+    private volatile boolean closed;
+
+    private RequestContext(RequestContext previous, Thread owner) {
+        this.previous = previous;
+        this.owner = owner;
+    }
+
+    /**
+     * Starts a new context on the current thread. Must be closed on the same thread.
+     * @return Entered context.
+     */
+    public static RequestContext enter() {
+        RequestContext context = new RequestContext(CURRENT.get(), Thread.currentThread());
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * @return Context of the current thread or null, if there is none.
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the task on the current thread with this context attached.
+     */
+    public void run(Runnable task) {
+        RequestContext attached = attach();
+        try {
+            task.run();
+        } finally {
+            restore(attached);
+        }
+    }
+
+    /**
+     * Calls the task on the current thread with this context attached.
+     * @return Result of the task.
+     */
+    public <V> V call(Callable<V> task) throws Exception {
+        RequestContext attached = attach();
+        try {
+            return task.call();
+        } finally {
+            restore(attached);
+        }
+    }
+
+    /**
+     * Returns the bean stored under the key, creating it with the factory on the first call.
+     * Two threads of the same request may race to create a bean, the loser's bean is closed and discarded.
+     * If the context is closed, also while the bean is being created, then the bean is closed
+      and IllegalStateException() is thrown.
+     * @return Bean of this context.
+     */
+    public <T> T computeIfAbsent(Object key, Provider<T> factory) {
+        if (closed) {
+            throw new IllegalStateException("Request context is closed");
+        }
+        @SuppressWarnings("unchecked")
+        T bean = (T) beans.get(key);
+        if (bean != null) {
+            return bean;
+        }
+        T created = factory.getInstance();
+        @SuppressWarnings("unchecked")
+        T existing = (T) beans.putIfAbsent(key, created);
+        if (existing != null) {
+            closeQuietly(created);
+            return existing;
+        }
+        synchronized (lock) {
+            if (!closed) {
+                creationOrder.addLast(created);
+                return created;
+            }
+        }
+        closeQuietly(created);                              //close() has already closed the registered beans
+        throw new IllegalStateException("Request context is closed");
+    }
+
+    /**
+     * Detaches the context from the thread and closes its AutoCloseable beans in reverse creation order.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (Thread.currentThread() == owner && CURRENT.get() == this) {
+            restore(previous);
+        }
+        beans.clear();
+        RuntimeException failure = null;
+        for (Object bean = creationOrder.pollLast(); bean != null; bean = creationOrder.pollLast()) {
+            try {
+                if (bean instanceof AutoCloseable) {
+                    ((AutoCloseable) bean).close();
+                }
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Failed to close request scoped beans", e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private RequestContext attach() {
+        RequestContext attached = CURRENT.get();
+        CURRENT.set(this);
+        return attached;
+    }
+
+    private static void restore(RequestContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+    private static void closeQuietly(Object bean) {
+        if (bean instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) bean).close();
+            } catch (Exception ignored) {
+                //the bean was never handed out
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.company.container;
+
+/**
+ * Custom scope. The injector calls scope() once per binding, the returned provider decides
+ * when to call the unscoped provider, which builds a new bean with all its dependencies.
+ */
+public interface Scope {
+
+    <T> Provider<T> scope(Class<T> type, Provider<T> unscoped);
+}
@@ -0,0 +1,58 @@
+package com.company.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a singleton warm-up: how long each singleton took to build and how long the whole warm-up took.
+ * The time of a singleton does not include the singletons it depends on, they are built before it.
+ */
+public class WarmUpReport {
+
+    private final Map<Key<?>, Long> initializationNanos;
+    private final long totalNanos;
+
+    public WarmUpReport(Map<Key<?>, Long> initializationNanos, long totalNanos) {
+        this.initializationNanos = Collections.unmodifiableMap(new LinkedHashMap<>(initializationNanos));
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * @return Build time of every warmed up singleton in nanoseconds.
+     */
+    public Map<Key<?>, Long> getInitializationNanos() {
+        return initializationNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return Bound keys of the slowest singletons, the slowest first.
+     */
+    public List<Key<?>> getSlowest(int limit) {
+        List<Map.Entry<Key<?>, Long>> entries = new ArrayList<>(initializationNanos.entrySet());
+        entries.sort(Map.Entry.<Key<?>, Long>comparingByValue().reversed());
+        List<Key<?>> slowest = new ArrayList<>();
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            slowest.add(entries.get(i).getKey());
+        }
+        return slowest;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Warm-up of ")
+                .append(initializationNanos.size()).append(" singletons took ")
+                .append(totalNanos / 1_000_000).append(" ms");
+        for (Key<?> key : getSlowest(initializationNanos.size())) {
+            report.append(System.lineSeparator()).append("  ").append(key).append(": ")
+                    .append(initializationNanos.get(key) / 1_000).append(" us");
+        }
+        return report.toString();
+    }
+}
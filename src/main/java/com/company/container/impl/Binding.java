@@ -0,0 +1,70 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+
+
+/**
+ * Entry of the container. Every scope has its own subclass, so getting a bean is a single virtual call.
+ * Bindings are immutable, except for the lazily built instance of a singleton.
+ */
+abstract class Binding {
+
+    private static final Key<?>[] NO_DEPENDENCIES = new Key<?>[0];
+
+    private final Key<?> key;
+
+    Binding(Key<?> key) {
+        this.key = key;
+    }
+
+    Key<?> getKey() {
+        return key;
+    }
+
+    /**
+     * @return Class of the bound key.
+     */
+    Class<?> getType() {
+        return key.getRawType();
+    }
+
+    abstract BeanScope getScope();
+
+    /**
+     * @return Bean of this binding.
+     */
+    abstract Object getInstance(InjectorImpl injector);
+
+    /**
+     * @return Construction plan or null, if the binding does not build beans from a constructor.
+     */
+    ConstructionPlan getPlan() {
+        return null;
+    }
+
+    /**
+     * @return Keys the bean of this binding depends on, including injected fields and methods.
+     * The array is shared, do not modify it.
+     */
+    Key<?>[] getDependencyKeys() {
+        ConstructionPlan plan = getPlan();
+        return plan != null ? plan.getAllDependencyKeys() : NO_DEPENDENCIES;
+    }
+
+    /**
+     * @return true if the dependency with the index in getDependencyKeys() is resolved only when the bean uses it.
+     */
+    boolean isDeferredDependency(int index) {
+        ConstructionPlan plan = getPlan();
+        return plan != null && plan.isDeferred(index);
+    }
+
+    /**
+     * @return true if the dependency with the index in getDependencyKeys() is injected only when it is bound.
+     */
+    boolean isOptionalDependency(int index) {
+        ConstructionPlan plan = getPlan();
+        return plan != null && plan.isOptional(index);
+    }
+}
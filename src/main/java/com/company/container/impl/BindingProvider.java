@@ -0,0 +1,28 @@
+package com.company.container.impl;
+
+import com.company.container.Provider;
+
+/**
+ * Provider bound to a resolved binding. Nothing is built until getInstance() is called,
+ * prototype bindings return a new bean on every call.
+ */
+final class BindingProvider<T> implements Provider<T> {
+
+    private final InjectorImpl injector;
+    private final Binding binding;
+
+    BindingProvider(InjectorImpl injector, Binding binding) {
+        this.injector = injector;
+        this.binding = binding;
+    }
+
+    /**
+     * Failures are reported as InjectionException() with the key and the dependency path.
+     * @return Bean.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getInstance() {
+        return (T) binding.getInstance(injector);
+    }
+}
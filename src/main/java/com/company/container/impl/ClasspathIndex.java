@@ -0,0 +1,83 @@
+package com.company.container.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Reads the index of injectable classes written by {@code com.company.processor.InjectProcessor}.
+ * Every jar has its own index resource, they are streamed line by line, so nothing is scanned
+ * and only the matching lines are kept in memory.
+ */
+final class ClasspathIndex {
+
+    static final String INDEX_RESOURCE = "META-INF/com.company.inject.index";
+
+    private ClasspathIndex() {
+    }
+
+    /**
+     * @return Entries of all indexed classes in the packages or their subpackages.
+     */
+    static List<Entry> read(ClassLoader classLoader, String... packages) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+            while (resources.hasMoreElements()) {
+                read(resources.nextElement(), packages, entries);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read " + INDEX_RESOURCE, e);
+        }
+        return entries;
+    }
+
+    private static void read(URL resource, String[] packages, List<Entry> entries) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] names = line.trim().split(" ");
+                if (!names[0].isEmpty() && isInPackages(names[0], packages)) {
+                    entries.add(new Entry(names));
+                }
+            }
+        }
+    }
+
+    private static boolean isInPackages(String className, String[] packages) {
+        for (String packageName : packages) {
+            if (className.startsWith(packageName + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indexed class and the interfaces it implements.
+     */
+    static final class Entry {
+
+        private final String className;
+        private final String[] interfaceNames;
+
+        private Entry(String[] names) {
+            this.className = names[0];
+            this.interfaceNames = new String[names.length - 1];
+            System.arraycopy(names, 1, interfaceNames, 0, interfaceNames.length);
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        String[] getInterfaceNames() {
+            return interfaceNames;
+        }
+    }
+}
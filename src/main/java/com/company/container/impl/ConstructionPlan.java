@@ -0,0 +1,244 @@
+package com.company.container.impl;
+
+import com.company.annotation.Lazy;
+import com.company.container.Instantiator;
+import com.company.container.Key;
+import com.company.container.Provider;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Precomputed recipe for building a bean: the chosen constructor or provider method, its instantiator,
+ * the keys of its dependencies, the fields and methods injected after construction and the init callbacks.
+ * Beans of provider methods are built by the module, their members are not injected and their callbacks are not called.
+ * A plan is created once at bind time, so building a bean does not repeat any constructor lookups.
+ * A {@code Provider<T>} or {@code @Lazy} parameter is a deferred dependency on T, it is resolved
+ * when the bean uses it, so it may close a cycle.
+ * An {@code Optional<T>} parameter is an optional dependency on T, it is empty if T is not bound.
+ */
+final class ConstructionPlan {
+
+    private final Key<?> key;
+    private final Class<?> implementation;
+    private final Executable factory;
+    private final Instantiator instantiator;
+    private final Key<?>[] dependencyKeys;
+    private final DependencyKind[] dependencyKinds;
+    private final InjectionPoints injectionPoints;
+    private final LifecycleMethods lifecycleMethods;
+    private final Key<?>[] allDependencyKeys;
+    private int[] dependencyIds;
+
+    ConstructionPlan(Key<?> key, Class<?> implementation, Constructor<?> constructor, Instantiator instantiator) {
+        this(key, implementation, constructor, instantiator, InjectionPoints.of(implementation),
+                LifecycleMethods.of(implementation));
+    }
+
+    /**
+     * Plan with injection points and init callbacks that are already known, for example from a snapshot.
+     */
+    ConstructionPlan(Key<?> key, Class<?> implementation, Constructor<?> constructor, Instantiator instantiator,
+                     InjectionPoints injectionPoints, LifecycleMethods lifecycleMethods) {
+        this(key, implementation, (Executable) constructor, instantiator, injectionPoints, lifecycleMethods);
+    }
+
+    /**
+     * Plan of a provider method, the instantiator calls the method.
+     */
+    ConstructionPlan(Key<?> key, Method providerMethod, Instantiator instantiator) {
+        this(key, providerMethod.getReturnType(), providerMethod, instantiator, InjectionPoints.none(),
+                LifecycleMethods.none());
+    }
+
+    private ConstructionPlan(Key<?> key, Class<?> implementation, Executable factory, Instantiator instantiator,
+                             InjectionPoints injectionPoints, LifecycleMethods lifecycleMethods) {
+        this.key = key;
+        this.implementation = implementation;
+        this.factory = factory;
+        this.instantiator = instantiator;
+        this.dependencyKeys = new Key<?>[factory.getParameterCount()];
+        this.dependencyKinds = resolveDependencies(factory, dependencyKeys);
+        this.injectionPoints = injectionPoints;
+        this.lifecycleMethods = lifecycleMethods;
+        this.allDependencyKeys = injectionPoints.isEmpty() ? dependencyKeys : concat(dependencyKeys,
+                injectionPoints.getDependencyKeys());
+    }
+
+    /**
+     * @return Bound key of the binding this plan belongs to.
+     */
+    Key<?> getKey() {
+        return key;
+    }
+
+    /**
+     * @return Class of the bound key.
+     */
+    Class<?> getType() {
+        return key.getRawType();
+    }
+
+    Class<?> getImplementation() {
+        return implementation;
+    }
+
+    /**
+     * @return Chosen constructor or null, if the bean is built by a provider method.
+     */
+    Constructor<?> getConstructor() {
+        return factory instanceof Constructor ? (Constructor<?>) factory : null;
+    }
+
+    Instantiator getInstantiator() {
+        return instantiator;
+    }
+
+    /**
+     * @return Dependency keys in parameter order, for deferred and optional dependencies the key of the bean.
+     * The array is shared, do not modify it.
+     */
+    Key<?>[] getDependencyKeys() {
+        return dependencyKeys;
+    }
+
+    /**
+     * @return Kinds of the parameter dependencies or null, if all of them are direct.
+     */
+    DependencyKind[] getDependencyKinds() {
+        return dependencyKinds;
+    }
+
+    /**
+     * @return true if the dependency with the index in getAllDependencyKeys() is resolved only when it is used.
+     */
+    boolean isDeferred(int index) {
+        return dependencyKinds != null && index < dependencyKinds.length
+                && (dependencyKinds[index] == DependencyKind.PROVIDER || dependencyKinds[index] == DependencyKind.LAZY);
+    }
+
+    /**
+     * @return true if the dependency with the index in getAllDependencyKeys() may be unbound.
+     */
+    boolean isOptional(int index) {
+        return dependencyKinds != null && index < dependencyKinds.length
+                && dependencyKinds[index] == DependencyKind.OPTIONAL;
+    }
+
+    InjectionPoints getInjectionPoints() {
+        return injectionPoints;
+    }
+
+    LifecycleMethods getLifecycleMethods() {
+        return lifecycleMethods;
+    }
+
+    /**
+     * @return Parameter dependency keys followed by the keys injected into fields and methods.
+     * The array is shared, do not modify it.
+     */
+    Key<?>[] getAllDependencyKeys() {
+        return allDependencyKeys;
+    }
+
+    /**
+     * @return Ids of the dependency bindings in the frozen binding table or null, if the injector is not frozen.
+     */
+    int[] getDependencyIds() {
+        return dependencyIds;
+    }
+
+    /**
+     * Called by freeze() before the binding table is published, readers see the ids once they see the table.
+     */
+    void link(int[] dependencyIds) {
+        this.dependencyIds = dependencyIds;
+    }
+
+    /**
+     * Fills in the keys of the parameters from their generic types and qualifier annotations,
+      deferred and optional dependencies get the key of the bean.
+     * If a Provider or Optional parameter has no type argument or a lazy parameter is not an interface,
+      then IllegalArgumentException() is thrown.
+     * @return Kinds of the dependencies or null, if all of them are direct.
+     */
+    private static DependencyKind[] resolveDependencies(Executable factory, Key<?>[] keys) {
+        Class<?>[] types = factory.getParameterTypes();
+        Type[] genericTypes = factory.getGenericParameterTypes();
+        Annotation[][] annotations = factory.getParameterAnnotations();
+        if (genericTypes.length != types.length || annotations.length != types.length) {
+            for (int i = 0; i < types.length; i++) {                    //implicit parameters, raw types only
+                keys[i] = Key.of(types[i]);
+            }
+            return null;
+        }
+        DependencyKind[] kinds = null;
+        for (int i = 0; i < types.length; i++) {
+            DependencyKind kind = DependencyKind.DIRECT;
+            Type type = genericTypes[i];
+            if (types[i] == Provider.class) {
+                kind = DependencyKind.PROVIDER;
+                type = getBeanType(factory, genericTypes[i]);
+            } else if (types[i] == Optional.class) {
+                kind = DependencyKind.OPTIONAL;
+                type = getBeanType(factory, genericTypes[i]);
+            } else if (isLazy(annotations[i])) {
+                if (!types[i].isInterface()) {
+                    throw new IllegalArgumentException("Lazy parameter of " + factory + " must be an interface");
+                }
+                kind = DependencyKind.LAZY;
+            }
+            keys[i] = Key.of(type, annotations[i]);
+            if (kind != DependencyKind.DIRECT) {
+                if (kinds == null) {
+                    kinds = new DependencyKind[types.length];
+                    Arrays.fill(kinds, DependencyKind.DIRECT);
+                }
+                kinds[i] = kind;
+            }
+        }
+        return kinds;
+    }
+
+    private static Type getBeanType(Executable factory, Type wrapperType) {
+        if (wrapperType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) wrapperType).getActualTypeArguments()[0];
+            if (argument instanceof Class || argument instanceof ParameterizedType) {
+                return argument;
+            }
+        }
+        throw new IllegalArgumentException(wrapperType.getTypeName() + " parameter of " + factory
+                + " must name the bean type");
+    }
+
+    private static boolean isLazy(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == Lazy.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Key<?>[] concat(Key<?>[] first, Key<?>[] second) {
+        Key<?>[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * How a parameter dependency is injected.
+     */
+    enum DependencyKind {
+        DIRECT,
+        PROVIDER,
+        LAZY,
+        OPTIONAL
+    }
+}
@@ -0,0 +1,349 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+import com.company.enm.PoolPolicy;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary image of a frozen binding table. Entries are written in topological order, so the id of a binding
+ * is its position in the file. Every entry holds the chosen constructor, the ids of its dependencies,
+ * whether the class has injected members and init callbacks, and a checksum of the class files the binding
+ * was resolved from: the bound type, the implementation and its superclasses, the constructor parameter types
+ * and the types of the injected members. JDK classes are left out. The checksum is the CRC32 of the CRC32s
+ * of the class files, so every class file is read once per snapshot, however many bindings share it.
+ * A different checksum tells that the binding may have changed since the snapshot.
+ * <pre>
+ * int magic, short version, int count,
+ * count * (UTF type, nullable UTF name, nullable UTF qualifier, byte scope, UTF implementation,
+ *          byte flags, short classes, classes * UTF class, long classesCrc,
+ *          short parameters, parameters * (UTF parameterType, int dependencyId),
+ *          [int maxSize, byte policy] for POOLED),
+ * long crc of everything before
+ * </pre>
+ * A nullable UTF is a boolean telling whether the string follows.
+ */
+final class ContainerSnapshot {
+
+    private static final int MAGIC = 0x44494E4A;
+    private static final short VERSION = 4;
+    private static final int INJECTION_POINTS = 1;
+    private static final int LIFECYCLE_METHODS = 2;
+    private static final BeanScope[] SCOPES = BeanScope.values();
+    private static final PoolPolicy[] POLICIES = PoolPolicy.values();
+
+    private final List<Entry> entries;
+
+    private ContainerSnapshot(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return Entries in topological order.
+     */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Custom scopes, generic keys, instances, providers and provider methods can not be restored from a file,
+     * for them IllegalStateException() is thrown.
+     */
+    static void write(Binding[] table, OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(table.length);
+        Map<Class<?>, Long> classChecksums = new HashMap<>();
+        for (Binding binding : table) {
+            ConstructionPlan plan = binding.getPlan();
+            Key<?> key = binding.getKey();
+            if (plan == null || plan.getConstructor() == null || binding.getScope() == BeanScope.CUSTOM
+                    || !(key.getType() instanceof Class)) {
+                throw new IllegalStateException(binding.getScope() + " " + key + " can not be saved to a snapshot");
+            }
+            data.writeUTF(key.getRawType().getName());
+            writeNullableUTF(data, key.getName());
+            writeNullableUTF(data, key.getQualifier() != null ? key.getQualifier().getName() : null);
+            data.writeByte(binding.getScope().ordinal());
+            data.writeUTF(plan.getImplementation().getName());
+            data.writeByte((plan.getInjectionPoints().isEmpty() ? 0 : INJECTION_POINTS)
+                    | (plan.getLifecycleMethods().isEmpty() ? 0 : LIFECYCLE_METHODS));
+            List<Class<?>> classes = getSignatureClasses(plan);
+            data.writeShort(classes.size());
+            for (Class<?> type : classes) {
+                data.writeUTF(type.getName());
+            }
+            data.writeLong(checksum(classes, classChecksums));
+            Class<?>[] parameterTypes = plan.getConstructor().getParameterTypes();
+            int[] dependencyIds = plan.getDependencyIds();
+            data.writeShort(parameterTypes.length);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                data.writeUTF(parameterTypes[i].getName());
+                data.writeInt(dependencyIds[i]);
+            }
+            if (binding instanceof PooledBinding) {
+                data.writeInt(((PooledBinding) binding).getMaxSize());
+                data.writeByte(((PooledBinding) binding).getPolicy().ordinal());
+            }
+        }
+        data.flush();
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    /**
+     * If the stream is not a snapshot of this version or it is damaged, then IOException() is thrown.
+     * @return Snapshot read from the stream.
+     */
+    static ContainerSnapshot read(InputStream in) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a container snapshot");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported container snapshot version " + version);
+        }
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Container snapshot is damaged, negative binding count");
+        }
+        List<Entry> entries = new ArrayList<>(Math.min(count, 1024));
+        for (int id = 0; id < count; id++) {
+            String typeName = data.readUTF();
+            String name = readNullableUTF(data);
+            String qualifierName = readNullableUTF(data);
+            BeanScope scope = readConstant(SCOPES, data);
+            String implementationName = data.readUTF();
+            int flags = data.readUnsignedByte();
+            String[] classNames = new String[data.readUnsignedShort()];
+            for (int i = 0; i < classNames.length; i++) {
+                classNames[i] = data.readUTF();
+            }
+            long classChecksum = data.readLong();
+            int parameters = data.readUnsignedShort();
+            String[] parameterTypeNames = new String[parameters];
+            int[] dependencyIds = new int[parameters];
+            for (int i = 0; i < parameters; i++) {
+                parameterTypeNames[i] = data.readUTF();
+                dependencyIds[i] = data.readInt();
+            }
+            int maxSize = 0;
+            PoolPolicy policy = null;
+            if (scope == BeanScope.POOLED) {
+                maxSize = data.readInt();
+                policy = readConstant(POLICIES, data);
+            }
+            entries.add(new Entry(typeName, name, qualifierName, scope, implementationName, flags, classNames,
+                    classChecksum, parameterTypeNames, dependencyIds, maxSize, policy));
+        }
+        long checksum = checked.getChecksum().getValue();
+        if (data.readLong() != checksum) {
+            throw new IOException("Container snapshot is damaged, checksum does not match");
+        }
+        return new ContainerSnapshot(entries);
+    }
+
+    private static void writeNullableUTF(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+
+    private static <E> E readConstant(E[] constants, DataInputStream data) throws IOException {
+        int ordinal = data.readUnsignedByte();
+        if (ordinal >= constants.length) {
+            throw new IOException("Container snapshot is damaged, unknown constant " + ordinal);
+        }
+        return constants[ordinal];
+    }
+
+    /**
+     * @return Classes the plan was resolved from, without JDK classes, the bound type first.
+     */
+    private static List<Class<?>> getSignatureClasses(ConstructionPlan plan) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        addSignatureClass(classes, plan.getType());
+        for (Class<?> type = plan.getImplementation(); type != null; type = type.getSuperclass()) {
+            addSignatureClass(classes, type);
+        }
+        for (Class<?> parameterType : plan.getConstructor().getParameterTypes()) {
+            addSignatureClass(classes, parameterType);
+        }
+        for (Key<?> key : plan.getInjectionPoints().getDependencyKeys()) {
+            addSignatureClass(classes, key.getRawType());
+        }
+        return new ArrayList<>(classes);
+    }
+
+    private static void addSignatureClass(Set<Class<?>> classes, Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (!type.isPrimitive() && type.getClassLoader() != null) {
+            classes.add(type);
+        }
+    }
+
+    /**
+     * @param classChecksums CRC32 of every class file read so far, shared by all entries of one snapshot.
+     * @return CRC32 of the CRC32s of the class files in order or 0, if one of them can not be read.
+     */
+    static long checksum(List<Class<?>> classes, Map<Class<?>, Long> classChecksums) throws IOException {
+        CRC32 crc = new CRC32();
+        for (Class<?> type : classes) {
+            Long classChecksum = classChecksums.get(type);
+            if (classChecksum == null) {
+                classChecksum = checksum(type);
+                classChecksums.put(type, classChecksum);
+            }
+            if (classChecksum < 0) {
+                return 0;
+            }
+            long value = classChecksum;
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                crc.update((int) (value >>> shift));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @return CRC32 of the class file or -1, if it can not be read.
+     */
+    private static long checksum(Class<?> type) throws IOException {
+        ClassLoader classLoader = type.getClassLoader();
+        InputStream classFile = classLoader == null ? null
+                : classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (classFile == null) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[4096];
+        try (InputStream in = classFile) {
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Binding as it was when the snapshot was written.
+     */
+    static final class Entry {
+
+        private final String typeName;
+        private final String name;
+        private final String qualifierName;
+        private final BeanScope scope;
+        private final String implementationName;
+        private final int flags;
+        private final String[] classNames;
+        private final long classChecksum;
+        private final String[] parameterTypeNames;
+        private final int[] dependencyIds;
+        private final int maxSize;
+        private final PoolPolicy policy;
+
+        private Entry(String typeName, String name, String qualifierName, BeanScope scope, String implementationName,
+                      int flags, String[] classNames, long classChecksum, String[] parameterTypeNames,
+                      int[] dependencyIds, int maxSize, PoolPolicy policy) {
+            this.typeName = typeName;
+            this.name = name;
+            this.qualifierName = qualifierName;
+            this.scope = scope;
+            this.implementationName = implementationName;
+            this.flags = flags;
+            this.classNames = classNames;
+            this.classChecksum = classChecksum;
+            this.parameterTypeNames = parameterTypeNames;
+            this.dependencyIds = dependencyIds;
+            this.maxSize = maxSize;
+            this.policy = policy;
+        }
+
+        String getTypeName() {
+            return typeName;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getQualifierName() {
+            return qualifierName;
+        }
+
+        BeanScope getScope() {
+            return scope;
+        }
+
+        String getImplementationName() {
+            return implementationName;
+        }
+
+        /**
+         * @return true if the implementation had fields or methods annotated with {@code @Inject}.
+         */
+        boolean hasInjectionPoints() {
+            return (flags & INJECTION_POINTS) != 0;
+        }
+
+        /**
+         * @return true if the implementation had init callbacks.
+         */
+        boolean hasLifecycleMethods() {
+            return (flags & LIFECYCLE_METHODS) != 0;
+        }
+
+        /**
+         * @return Names of the classes covered by the checksum, in checksum order.
+         */
+        String[] getClassNames() {
+            return classNames;
+        }
+
+        long getClassChecksum() {
+            return classChecksum;
+        }
+
+        String[] getParameterTypeNames() {
+            return parameterTypeNames;
+        }
+
+        int[] getDependencyIds() {
+            return dependencyIds;
+        }
+
+        int getMaxSize() {
+            return maxSize;
+        }
+
+        PoolPolicy getPolicy() {
+            return policy;
+        }
+    }
+}
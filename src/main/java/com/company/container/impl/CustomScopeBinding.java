@@ -0,0 +1,36 @@
+package com.company.container.impl;
+
+import com.company.container.Provider;
+import com.company.container.Scope;
+import com.company.enm.BeanScope;
+
+/**
+ * Delegates to the provider returned by a custom scope.
+ */
+final class CustomScopeBinding extends Binding {
+
+    private final ConstructionPlan plan;
+    private final Provider<?> scoped;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CustomScopeBinding(InjectorImpl injector, ConstructionPlan plan, Scope scope) {
+        super(plan.getKey());
+        this.plan = plan;
+        this.scoped = scope.scope((Class) plan.getType(), new BindingProvider<>(injector, new PrototypeBinding(plan, BeanScope.CUSTOM)));
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.CUSTOM;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        return scoped.getInstance();
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+}
@@ -0,0 +1,48 @@
+package com.company.container.impl;
+
+import com.company.annotation.Inject;
+import com.company.container.InstantiationStrategy;
+import com.company.container.Instantiator;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Uses the factories generated at compile time by {@code com.company.processor.InjectProcessor}.
+ * A generated factory calls the annotated constructor with a plain {@code new}.
+ * Constructors without a generated factory are delegated to the fallback strategy.
+ */
+public class GeneratedFactoryInstantiationStrategy implements InstantiationStrategy {
+
+    static final String FACTORY_SUFFIX = "$$InjectFactory";
+
+    private final InstantiationStrategy fallback;
+
+    public GeneratedFactoryInstantiationStrategy() {
+        this(new MethodHandleInstantiationStrategy());
+    }
+
+    public GeneratedFactoryInstantiationStrategy(InstantiationStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Instantiator createInstantiator(Constructor<?> constructor) {
+        Instantiator factory = constructor.isAnnotationPresent(Inject.class) ? loadFactory(constructor.getDeclaringClass()) : null;
+        return factory != null ? factory : fallback.createInstantiator(constructor);
+    }
+
+    /**
+     * @return Generated factory or null, if the class was compiled without the annotation processor.
+     */
+    private static Instantiator loadFactory(Class<?> impl) {
+        try {
+            Class<?> factoryClass = Class.forName(impl.getName() + FACTORY_SUFFIX, true, impl.getClassLoader());
+            if (!Instantiator.class.isAssignableFrom(factoryClass)) {
+                return null;
+            }
+            return (Instantiator) factoryClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+import com.company.exception.BindingNotFoundException;
+import com.company.exception.CircularDependencyException;
+import com.company.exception.InjectionException;
+import com.company.exception.ScopeViolationException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walks the whole binding graph once, reporting missing bindings, cycles and scope violations with the dependency path.
+ * A scope violation is a bean depending on a bean that lives shorter than itself, for example a singleton
+ * holding a REQUEST scoped bean. Prototypes live as long as the bean they are injected into.
+ * POOLED beans must be returned to their pool, so nothing may depend on them.
+ * Deferred dependencies, Provider and lazy parameters, are only checked to be bound: they are resolved
+ * when they are used, so they may close a cycle and may be shorter lived.
+ * Optional dependencies are checked like direct ones if they are bound and skipped otherwise.
+ * Every element of a multibinding is checked as a binding of its own, the collection lives as long as
+ * its shortest lived element.
+ * Bindings are collected in topological order, dependencies before the beans that need them.
+ */
+final class GraphValidator {
+
+    private final Map<Key<?>, Binding> container;
+    private final InjectorImpl parent;
+    private final Set<Key<?>> visited = new HashSet<>();
+    private final Map<Key<?>, Binding> shortestLivedDependencies = new HashMap<>();
+    private final Deque<Key<?>> path = new ArrayDeque<>();
+    private final List<Key<?>> order = new ArrayList<>();
+
+    /**
+     * @param parent frozen parent injector, its bindings are already validated. Null for a root injector.
+     */
+    GraphValidator(Map<Key<?>, Binding> container, InjectorImpl parent) {
+        this.container = container;
+        this.parent = parent;
+    }
+
+    /**
+     * @return Bound keys in topological order.
+     */
+    List<Key<?>> validate() {
+        for (Key<?> key : container.keySet()) {
+            visit(key);
+        }
+        return order;
+    }
+
+    private void visit(Key<?> key) {
+        if (visited.contains(key)) {
+            return;
+        }
+        if (path.contains(key)) {
+            throw withPath(new CircularDependencyException(key));
+        }
+        Binding binding = container.get(key);
+        if (binding == null && parent != null && parent.findBinding(key) != null) {
+            return;
+        }
+        if (binding == null) {
+            throw withPath(new BindingNotFoundException(key));
+        }
+        path.addLast(key);
+        Binding shortestLived;
+        if (binding instanceof MultiBinding) {
+            shortestLived = null;
+            for (Binding element : ((MultiBinding) binding).getElements()) {
+                Binding elementShortestLived = visitDependencies(element);
+                checkScope(element, elementShortestLived);
+                shortestLived = shorterLived(shortestLived,
+                        getLifetime(element.getScope()) < 0 ? elementShortestLived : element);
+            }
+        } else {
+            shortestLived = visitDependencies(binding);
+        }
+        checkScope(binding, shortestLived);
+        path.removeLast();
+        if (shortestLived != null) {
+            shortestLivedDependencies.put(key, shortestLived);
+        }
+        visited.add(key);
+        order.add(key);
+    }
+
+    /**
+     * @return Shortest lived binding the bean depends on, null if there is none or all of them are prototypes.
+     */
+    private Binding visitDependencies(Binding binding) {
+        Binding shortestLived = null;
+        Key<?>[] dependencies = binding.getDependencyKeys();
+        for (int i = 0; i < dependencies.length; i++) {
+            Key<?> dependency = dependencies[i];
+            Binding dependencyBinding = container.get(dependency);
+            if (dependencyBinding == null && parent != null) {
+                dependencyBinding = parent.findBinding(dependency);
+            }
+            if (dependencyBinding == null && binding.isOptionalDependency(i)) {
+                continue;
+            }
+            boolean deferred = binding.isDeferredDependency(i);
+            if (!deferred) {
+                visit(dependency);
+            }
+            if (dependencyBinding == null) {
+                throw withPath(new BindingNotFoundException(dependency));
+            }
+            if (dependencyBinding.getScope() == BeanScope.POOLED) {
+                throw withPath(new ScopeViolationException(dependency,
+                        "POOLED " + dependency + " can only be acquired from its pool"));
+            }
+            if (deferred) {
+                continue;                                   //looked up on every use, may be shorter lived
+            }
+            shortestLived = shorterLived(shortestLived, getLifetime(dependencyBinding.getScope()) < 0
+                    ? shortestLivedDependencies.get(dependency) : dependencyBinding);     //null for parent prototypes
+        }
+        return shortestLived;
+    }
+
+    /**
+     * @return The shorter lived of the bindings, a null candidate is ignored.
+     */
+    private static Binding shorterLived(Binding shortestLived, Binding candidate) {
+        return candidate != null && (shortestLived == null
+                || getLifetime(candidate.getScope()) < getLifetime(shortestLived.getScope())) ? candidate : shortestLived;
+    }
+
+    private void checkScope(Binding binding, Binding shortestLived) {
+        int lifetime = getLifetime(binding.getScope());
+        if (lifetime >= 0 && shortestLived != null && getLifetime(shortestLived.getScope()) < lifetime) {
+            throw withPath(new ScopeViolationException(shortestLived.getKey(), binding.getScope() + " "
+                    + binding.getKey() + " can not depend on " + shortestLived.getScope() + " " + shortestLived.getKey()));
+        }
+    }
+
+    /**
+     * Custom scopes are treated as the shortest lived, nothing longer lived may depend on them.
+     * @return Rank of the scope lifetime, the longer the higher, or -1 for prototypes.
+     */
+    private static int getLifetime(BeanScope scope) {
+        switch (scope) {
+            case SINGLETON:
+                return 3;
+            case THREAD:
+                return 2;
+            case REQUEST:
+                return 1;
+            case CUSTOM:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @return The exception with the keys being visited as its dependency path.
+     */
+    private InjectionException withPath(InjectionException exception) {
+        for (Iterator<Key<?>> iterator = path.descendingIterator(); iterator.hasNext(); ) {
+            exception.prependPath(iterator.next());
+        }
+        return exception;
+    }
+}
@@ -0,0 +1,183 @@
+package com.company.container.impl;
+
+import com.company.annotation.Inject;
+import com.company.container.Key;
+import com.company.exception.BeanCreationException;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fields and methods of a class annotated with {@link Inject}, found once per class and cached in a ClassValue.
+ * Every injection point is a method handle adapted to (Object, Object) or (Object, Object[]), so injecting
+ * costs an exact handle call instead of a reflective one.
+ * Classes are injected from the top of the hierarchy down, the fields of each class before its methods.
+ * A method overridden in a subclass is injected only if the override is annotated.
+ */
+final class InjectionPoints {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FIELD_SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType METHOD_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+    private static final InjectionPoints NONE = new InjectionPoints(new Point[0]);
+    private static final ClassValue<InjectionPoints> CACHE = new ClassValue<InjectionPoints>() {
+        @Override
+        protected InjectionPoints computeValue(Class<?> type) {
+            return find(type);
+        }
+    };
+
+    private final Point[] points;
+    private final Key<?>[] dependencyKeys;
+
+    private InjectionPoints(Point[] points) {
+        this.points = points;
+        List<Key<?>> keys = new ArrayList<>();
+        for (Point point : points) {
+            keys.addAll(Arrays.asList(point.dependencyKeys));
+        }
+        this.dependencyKeys = keys.toArray(new Key<?>[0]);
+    }
+
+    /**
+     * @return Injection points of the class.
+     */
+    static InjectionPoints of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return Injection points of nothing.
+     */
+    static InjectionPoints none() {
+        return NONE;
+    }
+
+    boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /**
+     * @return Keys of all injected fields and method parameters. The array is shared, do not modify it.
+     */
+    Key<?>[] getDependencyKeys() {
+        return dependencyKeys;
+    }
+
+    /**
+     * Resolves the dependencies of every injection point through the injector and injects them into the bean.
+     * Exceptions thrown by the injected methods are wrapped in BeanCreationException() with the key of the bean.
+     */
+    void inject(InjectorImpl injector, Object bean, Key<?> key) {
+        for (Point point : points) {
+            Object[] arguments = injector.findDependencyBeans(point.dependencyKeys);
+            try {
+                if (point.field) {
+                    point.handle.invokeExact(bean, arguments[0]);
+                } else {
+                    point.handle.invokeExact(bean, arguments);
+                }
+            } catch (Throwable e) {
+                throw new BeanCreationException(key, e);
+            }
+        }
+    }
+
+    /**
+     * Overrides are resolved over the whole hierarchy first, then the points are collected class by class:
+      the fields of a class and then its surviving methods, so a method sees the fields of its own class
+      and of its superclasses injected, but not the fields of subclasses.
+     */
+    private static InjectionPoints find(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.addFirst(current);
+        }
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> current : hierarchy) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                String signature = Modifier.isPrivate(method.getModifiers())
+                        ? current.getName() + '#' + method.getName() + Arrays.toString(method.getParameterTypes())
+                        : method.getName() + Arrays.toString(method.getParameterTypes());
+                methods.remove(signature);
+                if (method.isAnnotationPresent(Inject.class)) {
+                    methods.put(signature, method);
+                }
+            }
+        }
+        List<Point> points = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Inject.class) && !Modifier.isStatic(field.getModifiers())) {
+                    points.add(createPoint(field));
+                }
+            }
+            for (Method method : methods.values()) {
+                if (method.getDeclaringClass() == current) {
+                    points.add(createPoint(method));
+                }
+            }
+        }
+        return points.isEmpty() ? NONE : new InjectionPoints(points.toArray(new Point[0]));
+    }
+
+    private static Point createPoint(Field field) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            throw new IllegalArgumentException("Final field " + field + " can not be injected");
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandle setter = LOOKUP.unreflectSetter(field).asType(FIELD_SETTER_TYPE);
+            return new Point(setter, new Key<?>[]{Key.of(field.getGenericType(), field.getAnnotations())}, true);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Field " + field + " can not be injected", e);
+        }
+    }
+
+    private static Point createPoint(Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(METHOD_TYPE);
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+            Key<?>[] keys = new Key<?>[parameterTypes.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = Key.of(parameterTypes[i], parameterAnnotations[i]);
+            }
+            return new Point(handle, keys, false);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Method " + method + " can not be injected", e);
+        }
+    }
+
+    private static final class Point {
+
+        private final MethodHandle handle;
+        private final Key<?>[] dependencyKeys;
+        private final boolean field;
+
+        private Point(MethodHandle handle, Key<?>[] dependencyKeys, boolean field) {
+            this.handle = handle;
+            this.dependencyKeys = dependencyKeys;
+            this.field = field;
+        }
+    }
+}
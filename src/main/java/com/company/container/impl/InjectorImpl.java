@@ -1,20 +1,43 @@
 package com.company.container.impl;
 
-import com.company.enm.BeanScope;
 import com.company.annotation.Inject;
+import com.company.annotation.Provides;
+import com.company.container.InjectionListener;
+import com.company.container.BeanPool;
 import com.company.container.Injector;
+import com.company.container.InstantiationStrategy;
+import com.company.container.Key;
 import com.company.container.Provider;
+import com.company.container.Scope;
+import com.company.container.WarmUpReport;
+import com.company.container.metrics.ConstructionTracer;
+import com.company.enm.BeanScope;
+import com.company.enm.PoolPolicy;
+import com.company.exception.BeanCreationException;
 import com.company.exception.BindingNotFoundException;
 import com.company.exception.ConstructorNotFoundException;
+import com.company.exception.InjectionException;
 import com.company.exception.TooManyConstructorsException;
-import javafx.util.Pair;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * Author : Karavay Artyom
@@ -23,128 +46,881 @@ import java.util.concurrent.ConcurrentHashMap;
 public class InjectorImpl implements Injector {
 
     private static final Class<Inject> ANNOTATION_CLASS = Inject.class;
-    private final Map<Class<?>, Pair<BeanScope, Object>> container;
+    private static final Provider<?> EMPTY_PROVIDER = () -> null;
+    private volatile Map<Key<?>, Binding> container;
+    private volatile Map<Key<?>, Provider<?>> providers;
+    private volatile boolean frozen;
+    private volatile Binding[] bindingTable;
+    private boolean closed;
+    private final InstantiationStrategy instantiationStrategy;
+    private final InjectionListener listener;
+    private final ConstructionTracer tracer;
+    private final InjectorImpl parent;
 
     {
         container = new ConcurrentHashMap<>();
+        providers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Uses the factories generated by the annotation processor, other constructors are called through method handles.
+     */
+    public InjectorImpl() {
+        this(new GeneratedFactoryInstantiationStrategy(new MethodHandleInstantiationStrategy()));
+    }
+
+    /**
+     * @param instantiationStrategy strategy used to create the beans of all bindings of this injector.
+     */
+    public InjectorImpl(InstantiationStrategy instantiationStrategy) {
+        this(instantiationStrategy, null);
     }
 
+    /**
+     * @param instantiationStrategy strategy used to create the beans of all bindings of this injector.
+     * @param listener receives the construction events of this injector, null if they are not needed.
+     */
+    public InjectorImpl(InstantiationStrategy instantiationStrategy, InjectionListener listener) {
+        this(instantiationStrategy, listener, null);
+    }
+
+    /**
+     * @param instantiationStrategy strategy used to create the beans of all bindings of this injector.
+     * @param listener receives the construction events of this injector, null if they are not needed.
+     * @param tracer records a span for every bean built by this injector, null if tracing is off.
+     */
+    public InjectorImpl(InstantiationStrategy instantiationStrategy, InjectionListener listener,
+                        ConstructionTracer tracer) {
+        this.instantiationStrategy = instantiationStrategy;
+        this.listener = listener;
+        this.tracer = tracer;
+        this.parent = null;
+    }
+
+    /**
+     * Child injector, holds only its own bindings and delegates everything else to the frozen parent.
+     */
+    private InjectorImpl(InjectorImpl parent) {
+        this.instantiationStrategy = parent.instantiationStrategy;
+        this.listener = parent.listener;
+        this.tracer = parent.tracer;
+        this.parent = parent;
+    }
+
+    /**
+     * Resolves the binding once and returns a cached provider for it.
+     * A child injector caches the providers of its parent too, so repeated lookups do not walk up the hierarchy.
+     * Nothing is built until getInstance() is called.
+     * If there is no binding, then a provider returning null is returned.
+     * @return Provider.
+     */
     @Override
-    public <T> Provider<T> getProvider(Class<T> type)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        Optional<Object> optionalBean = Optional.ofNullable(findBean(type));
-        return new Provider<T>() {
-            @Override
-            public T getInstance() {
-                return (T) optionalBean.orElse(null);
-            }
-        };
+    public <T> Provider<T> getProvider(Class<T> type) {
+        return getProvider(Key.of(type));
+    }
+
+    /**
+     * Same as getProvider(Class), the key of a class is the same interned instance on every call.
+     * @return Provider.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Provider<T> getProvider(Key<T> key) {
+        Provider<?> provider = providers.get(key);
+        if (provider != null) {
+            return (Provider<T>) provider;
+        }
+        Binding binding = container.get(key);
+        if (binding != null) {
+            provider = new BindingProvider<T>(this, binding);
+        } else if (parent != null) {
+            provider = parent.getProvider(key);
+        }
+        if (provider == null || provider == EMPTY_PROVIDER) {
+            return (Provider<T>) EMPTY_PROVIDER;
+        }
+        Provider<?> cachedProvider = providers.putIfAbsent(key, provider);
+        if (cachedProvider != null) {
+            return (Provider<T>) cachedProvider;
+        }
+        if (container.get(key) != binding) {                       //rebound while the provider was created
+            providers.remove(key, provider);
+        }
+        return (Provider<T>) provider;
+    }
+
+    /**
+     * Looks the binding up once through getProvider(), so probing an unbound key throws nothing.
+     * @return Bean or an empty Optional, if there is no binding.
+     */
+    @Override
+    public <T> Optional<T> getOptional(Class<T> type) {
+        return getOptional(Key.of(type));
+    }
+
+    @Override
+    public <T> Optional<T> getOptional(Key<T> key) {
+        Provider<T> provider = getProvider(key);
+        return provider == EMPTY_PROVIDER ? Optional.empty() : Optional.ofNullable(provider.getInstance());
     }
 
     @Override
     public <T> void bind(Class<T> intf, Class<? extends T> impl) {
-        validateClass(impl);
-        container.put(intf, new Pair<>(BeanScope.PROTOTYPE, impl));
+        bind(intf, impl, BeanScope.PROTOTYPE);
+    }
+
+    @Override
+    public <T> void bind(Key<T> key, Class<? extends T> impl) {
+        bind(key, impl, BeanScope.PROTOTYPE);
     }
 
     @Override
     public <T> void bindSingleton(Class<T> intf, Class<? extends T> impl) {
-        validateClass(impl);
-        container.put(intf, new Pair<>(BeanScope.SINGLETON, impl));
+        bind(intf, impl, BeanScope.SINGLETON);
+    }
+
+    /**
+     * CUSTOM and POOLED scopes need their own bind methods, for them IllegalArgumentException() is thrown.
+     */
+    @Override
+    public <T> void bind(Class<T> intf, Class<? extends T> impl, BeanScope scope) {
+        bind(Key.of(intf), impl, scope);
+    }
+
+    @Override
+    public <T> void bind(Key<T> key, Class<? extends T> impl, BeanScope scope) {
+        register(key, createBinding(createPlan(key, impl), scope));
+    }
+
+    @Override
+    public <T> void bind(Class<T> intf, Class<? extends T> impl, Scope scope) {
+        Key<T> key = Key.of(intf);
+        register(key, new CustomScopeBinding(this, createPlan(key, impl), scope));
+    }
+
+    /**
+     * Pools with the BLOCK policy.
+     */
+    @Override
+    public <T> void bindPooled(Class<T> intf, Class<? extends T> impl, int maxSize) {
+        bindPooled(intf, impl, maxSize, PoolPolicy.BLOCK);
+    }
+
+    @Override
+    public <T> void bindPooled(Class<T> intf, Class<? extends T> impl, int maxSize, PoolPolicy policy) {
+        Key<T> key = Key.of(intf);
+        register(key, new PooledBinding(this, createPlan(key, impl), maxSize, policy));
+    }
+
+    @Override
+    public <T> void bindInstance(Class<T> intf, T instance) {
+        bindInstance(Key.of(intf), instance);
+    }
+
+    @Override
+    public <T> void bindInstance(Key<T> key, T instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("Instance of " + key + " is null");
+        }
+        register(key, new InstanceBinding(key, instance));
+    }
+
+    @Override
+    public <T> void bindProvider(Class<T> intf, Supplier<? extends T> provider) {
+        bindProvider(Key.of(intf), provider);
+    }
+
+    @Override
+    public <T> void bindProvider(Key<T> key, Supplier<? extends T> provider) {
+        register(key, new ProviderBinding(key, provider::get));
     }
 
+    @Override
+    public <T> void bindIntoSet(Class<T> type, Class<? extends T> impl) {
+        bindIntoSet(type, impl, BeanScope.PROTOTYPE);
+    }
 
     /**
-     * Counts the number of constructors with the required annotation.
-     * If the number of annotations is greater than 1, then TooManyConstructorsException() is thrown.
-     * If the number of constructors is less than 1, then a constructor with no arguments is searched,
+     * Adds the class to the {@code Set<T>} binding, creating the binding for the first element.
+     * Elements are built like beans of bind(), each with its own scope.
+     */
+    @Override
+    public <T> void bindIntoSet(Class<T> type, Class<? extends T> impl, BeanScope scope) {
+        contribute(MultiBinding.setOf(type), null, createBinding(createPlan(Key.of(impl), impl), scope));
+    }
+
+    @Override
+    public <K, T> void bindIntoMap(Class<K> keyType, Class<T> type, K mapKey, Class<? extends T> impl) {
+        bindIntoMap(keyType, type, mapKey, impl, BeanScope.PROTOTYPE);
+    }
+
+    /**
+     * Adds the class to the {@code Map<K, T>} binding under the map key.
+     * If the map key is null or already taken, then IllegalArgumentException() is thrown.
+     */
+    @Override
+    public <K, T> void bindIntoMap(Class<K> keyType, Class<T> type, K mapKey, Class<? extends T> impl,
+                                   BeanScope scope) {
+        if (mapKey == null) {
+            throw new IllegalArgumentException("Map key of " + impl.getName() + " is null");
+        }
+        contribute(MultiBinding.mapOf(keyType, type), mapKey, createBinding(createPlan(Key.of(impl), impl), scope));
+    }
+
+    /**
+     * Replaces the multibinding with a copy holding the element.
+     * If the key is bound to something else or is bound in the parent, then IllegalStateException() is thrown.
+     */
+    private synchronized void contribute(MultiBinding empty, Object mapKey, Binding element) {
+        Key<?> key = empty.getKey();
+        Binding binding = container.get(key);
+        if (binding == null && parent != null && parent.findBinding(key) != null) {
+            throw new IllegalStateException(key + " is bound in the parent injector, a child can not add to it");
+        }
+        if (binding != null && !(binding instanceof MultiBinding)) {
+            throw new IllegalStateException(key + " is not a multibinding");
+        }
+        register(key, (binding != null ? (MultiBinding) binding : empty).with(element, mapKey));
+    }
+
+    /**
+     * Binds the return type of every method of the module annotated with {@code @Provides},
+      qualified by the qualifier annotation of the method, if there is one.
+     * The methods are called through method handles bound to the module, their parameters are injected
+      like constructor parameters, including Provider and lazy ones.
+     * If a provider method returns void or a primitive, then IllegalArgumentException() is thrown.
+     */
+    @Override
+    public void install(Object module) {
+        for (Method method : module.getClass().getDeclaredMethods()) {
+            Provides provides = method.getAnnotation(Provides.class);
+            if (provides == null) {
+                continue;
+            }
+            if (method.getReturnType().isPrimitive()) {
+                throw new IllegalArgumentException("Provider method " + method + " must return a bean");
+            }
+            Key<?> key = Key.of(method.getGenericReturnType(), method.getAnnotations());
+            ConstructionPlan plan = new ConstructionPlan(key, method,
+                    MethodHandleInstantiationStrategy.createMethodInstantiator(method, module));
+            register(key, createBinding(plan, provides.scope()));
+        }
+    }
+
+    @Override
+    public void autoBind(String... packages) {
+        autoBind(BeanScope.PROTOTYPE, packages);
+    }
+
+    /**
+     * Reads the index of injectable classes and binds the classes of the packages.
+     * An interface implemented by several found classes is ambiguous and is not bound.
+     * Keys that are already bound keep their binding, so bindings made by hand win over found ones.
+     * If an indexed class can not be loaded, then IllegalStateException() is thrown.
+     */
+    @Override
+    public void autoBind(BeanScope scope, String... packages) {
+        ClassLoader classLoader = InjectorImpl.class.getClassLoader();
+        List<ClasspathIndex.Entry> entries = ClasspathIndex.read(classLoader, packages);
+        Map<String, Integer> implementationCounts = new HashMap<>();
+        for (ClasspathIndex.Entry entry : entries) {
+            for (String interfaceName : entry.getInterfaceNames()) {
+                implementationCounts.merge(interfaceName, 1, Integer::sum);
+            }
+        }
+        for (ClasspathIndex.Entry entry : entries) {
+            Class<?> impl = loadClass(entry.getClassName(), classLoader);
+            ConstructionPlan plan = createPlan(Key.of(impl), impl);
+            if (findBinding(plan.getKey()) == null) {
+                register(plan.getKey(), createBinding(plan, scope));
+            }
+            for (String interfaceName : entry.getInterfaceNames()) {
+                Key<?> key = Key.of(loadClass(interfaceName, classLoader));
+                if (implementationCounts.get(interfaceName) == 1 && findBinding(key) == null) {
+                    register(key, createBinding(createPlan(key, impl, plan.getConstructor()), scope));
+                }
+            }
+        }
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) {
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Class " + name + " is not on the classpath", e);
+        }
+    }
+
+    /**
+     * Injects the fields and methods annotated with {@code @Inject} of an object created outside the injector.
+     * Exceptions thrown by the injected methods are wrapped in BeanCreationException().
+     */
+    @Override
+    public void injectMembers(Object instance) {
+        InjectionPoints.of(instance.getClass()).inject(this, instance, Key.of(instance.getClass()));
+    }
+
+    /**
+     * If there is no binding, then BindingNotFoundException() is thrown,
+      if the binding is not pooled, then IllegalArgumentException() is thrown.
+     * @return Pool of the binding.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> BeanPool<T> getPool(Class<T> type) {
+        Binding binding = findBinding(Key.of(type));
+        if (binding == null) {
+            throw new BindingNotFoundException(Key.of(type));
+        }
+        if (!(binding instanceof PooledBinding)) {
+            throw new IllegalArgumentException(type.getName() + " is bound with " + binding.getScope() + " scope");
+        }
+        return (BeanPool<T>) (BeanPool<?>) binding;
+    }
+
+    /**
+     * Releases the thread scoped beans of this injector and its ancestors.
+     * If closing some beans fails, then the others are still closed and IllegalStateException() is thrown.
+     */
+    @Override
+    public void releaseThreadScope() {
+        IllegalStateException failure = null;
+        for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
+            for (Binding binding : injector.container.values()) {
+                Binding[] bindings = binding instanceof MultiBinding
+                        ? ((MultiBinding) binding).getElements() : new Binding[]{binding};
+                for (Binding candidate : bindings) {
+                    if (!(candidate instanceof ThreadBinding)) {
+                        continue;
+                    }
+                    Object bean = ((ThreadBinding) candidate).release();
+                    try {
+                        if (bean instanceof AutoCloseable) {
+                            ((AutoCloseable) bean).close();
+                        }
+                    } catch (Exception e) {
+                        if (failure == null) {
+                            failure = new IllegalStateException("Failed to close thread scoped beans", e);
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Binding createBinding(ConstructionPlan plan, BeanScope scope) {
+        switch (scope) {
+            case SINGLETON:
+                return new SingletonBinding(plan);
+            case PROTOTYPE:
+                return new PrototypeBinding(plan);
+            case THREAD:
+                return new ThreadBinding(plan);
+            case REQUEST:
+                return new RequestBinding(this, plan);
+            default:
+                throw new IllegalArgumentException(scope + " scope can not be bound with bind()");
+        }
+    }
+
+    @Override
+    public void freeze() {
+        freeze(false);
+    }
+
+    /**
+     * Validates the whole binding graph, so missing bindings, cycles and scope violations are reported here
+      instead of at request time. After that the container and the providers are replaced
+      with immutable maps and no more bindings can be added.
+     * Singletons are optionally built in parallel on the common ForkJoinPool.
+     */
+    @Override
+    public synchronized void freeze(boolean instantiateSingletons) {
+        List<Key<?>> order = new GraphValidator(container, parent).validate();
+        if (!frozen) {
+            publish(parent == null ? createBindingTable(order) : null);
+        }
+        if (instantiateSingletons) {
+            new SingletonWarmUp(this, container).run(order, ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * Replaces the container and the providers with immutable maps and publishes the binding table.
+     * @param table binding table, null for a child injector.
+     */
+    private void publish(Binding[] table) {
+        bindingTable = table;
+        Map<Key<?>, Provider<?>> frozenProviders = parent == null                  //a child keeps caching parent providers
+                ? new HashMap<>() : new ConcurrentHashMap<>(providers);
+        for (Binding binding : container.values()) {
+            frozenProviders.put(binding.getKey(), new BindingProvider<>(this, binding));
+        }
+        container = Collections.unmodifiableMap(new HashMap<>(container));
+        providers = parent == null ? Collections.unmodifiableMap(frozenProviders) : frozenProviders;
+        frozen = true;
+    }
+
+    /**
+     * Writes the frozen binding table: the chosen constructors, the dependency ids and the topological order.
+     * If the injector is not a frozen root injector, then IllegalStateException() is thrown.
+     */
+    @Override
+    public void saveSnapshot(OutputStream out) throws IOException {
+        Binding[] table = bindingTable;
+        if (table == null) {
+            throw new IllegalStateException("Only a frozen root injector can be saved to a snapshot");
+        }
+        ContainerSnapshot.write(table, out);
+    }
+
+    /**
+     * Binds everything from the snapshot and freezes the injector.
+     * If no class changed since the snapshot was written and the injector was empty, then the stored constructors
+      and dependency ids are used as they are, without constructor discovery and graph validation.
+     * A changed class is resolved again like in bind() and then the whole graph is validated as in freeze().
+     * If the injector is frozen, then IllegalStateException() is thrown.
+     */
+    @Override
+    public synchronized void restoreSnapshot(InputStream in) throws IOException {
+        if (frozen) {
+            throw new IllegalStateException("Injector is frozen, snapshot can not be restored");
+        }
+        List<ContainerSnapshot.Entry> entries = ContainerSnapshot.read(in).getEntries();
+        ClassLoader classLoader = InjectorImpl.class.getClassLoader();
+        boolean unchanged = parent == null && container.isEmpty();
+        Map<Class<?>, Long> classChecksums = new HashMap<>();              //classes shared by entries are read once
+        Binding[] table = new Binding[entries.size()];
+        for (int id = 0; id < table.length; id++) {
+            ContainerSnapshot.Entry entry = entries.get(id);
+            Key<?> key = restoreKey(entry, classLoader);
+            Class<?> impl = loadClass(entry.getImplementationName(), classLoader);
+            ConstructionPlan plan = restorePlan(key, impl, entry, classLoader, classChecksums);
+            if (plan == null) {
+                plan = createPlan(key, impl);
+                unchanged = false;
+            }
+            table[id] = entry.getScope() == BeanScope.POOLED
+                    ? new PooledBinding(this, plan, entry.getMaxSize(), entry.getPolicy())
+                    : createBinding(plan, entry.getScope());
+            register(key, table[id]);
+        }
+        if (!unchanged) {
+            freeze();
+            return;
+        }
+        for (int id = 0; id < table.length; id++) {
+            table[id].getPlan().link(entries.get(id).getDependencyIds());
+        }
+        publish(table);
+    }
+
+    /**
+     * @return Key of the entry, qualified by its name or qualifier annotation if it has one.
+     */
+    private static Key<?> restoreKey(ContainerSnapshot.Entry entry, ClassLoader classLoader) {
+        Key<?> key = Key.of(loadClass(entry.getTypeName(), classLoader));
+        if (entry.getName() != null) {
+            return key.named(entry.getName());
+        }
+        if (entry.getQualifierName() != null) {
+            return key.qualifiedBy(loadClass(entry.getQualifierName(), classLoader).asSubclass(Annotation.class));
+        }
+        return key;
+    }
+
+    /**
+     * Reuses the constructor stored in the snapshot. The search for injected members and init callbacks
+      is skipped for an implementation that had none of them.
+     * @return Plan with the constructor stored in the snapshot or null, if one of the classes the binding
+      was resolved from changed since it was written.
+     */
+    private ConstructionPlan restorePlan(Key<?> key, Class<?> impl, ContainerSnapshot.Entry entry,
+                                         ClassLoader classLoader, Map<Class<?>, Long> classChecksums)
+            throws IOException {
+        String[] classNames = entry.getClassNames();
+        List<Class<?>> classes = new ArrayList<>(classNames.length);
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                return null;                                    //removed since the snapshot was written
+            }
+        }
+        long checksum = ContainerSnapshot.checksum(classes, classChecksums);
+        if (checksum == 0 || checksum != entry.getClassChecksum()) {
+            return null;
+        }
+        String[] parameterTypeNames = entry.getParameterTypeNames();
+        Class<?>[] parameterTypes = new Class<?>[parameterTypeNames.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = loadClass(parameterTypeNames[i], classLoader);
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = impl.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        return new ConstructionPlan(key, impl, constructor, instantiationStrategy.createInstantiator(constructor),
+                entry.hasInjectionPoints() ? InjectionPoints.of(impl) : InjectionPoints.none(),
+                entry.hasLifecycleMethods() ? LifecycleMethods.of(impl) : LifecycleMethods.none());
+    }
+
+    /**
+     * Gives every binding a dense id, its index in the topological order, and links the plans
+      to the ids of their dependencies. Frozen plans then resolve dependencies through the table
+      without any map lookups.
+     * @return Table of bindings indexed by id.
+     */
+    private Binding[] createBindingTable(List<Key<?>> order) {
+        Map<Key<?>, Integer> ids = new HashMap<>();
+        Binding[] table = new Binding[order.size()];
+        for (int id = 0; id < table.length; id++) {
+            ids.put(order.get(id), id);
+            table[id] = container.get(order.get(id));
+        }
+        for (Binding binding : table) {
+            if (binding instanceof MultiBinding) {
+                for (Binding element : ((MultiBinding) binding).getElements()) {
+                    link(element.getPlan(), ids);
+                }
+            } else {
+                link(binding.getPlan(), ids);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Unbound optional dependencies get the id -1.
+     */
+    private static void link(ConstructionPlan plan, Map<Key<?>, Integer> ids) {
+        if (plan == null) {
+            return;
+        }
+        Key<?>[] dependencyKeys = plan.getDependencyKeys();
+        int[] dependencyIds = new int[dependencyKeys.length];
+        for (int i = 0; i < dependencyKeys.length; i++) {
+            Integer id = ids.get(dependencyKeys[i]);
+            dependencyIds[i] = id != null ? id : -1;
+        }
+        plan.link(dependencyIds);
+    }
+
+    /**
+     * Freezes this injector, if it is not frozen yet, and creates a child of it.
+     * The child starts empty, so creating it costs the same no matter how many bindings this injector has.
+     * Bindings of the child override the bindings of this injector for the child only,
+      singletons of this injector are shared with the child.
+     * @return Child injector.
+     */
+    @Override
+    public Injector createChild() {
+        if (!frozen) {
+            freeze();
+        }
+        return new InjectorImpl(this);
+    }
+
+    @Override
+    public WarmUpReport warmUp() {
+        return warmUp(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Validates the binding graph and builds all singletons on the executor.
+     * A singleton is built as soon as the singletons it depends on are built.
+     * @return Build time of every singleton.
+     */
+    @Override
+    public WarmUpReport warmUp(Executor executor) {
+        Map<Key<?>, Binding> bindings = container;
+        List<Key<?>> order = new GraphValidator(bindings, parent).validate();
+        return new SingletonWarmUp(this, bindings).run(order, executor);
+    }
+
+    @Override
+    public void close() {
+        close(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Closes the AutoCloseable singletons of this injector in reverse dependency order, independent ones
+      in parallel on the executor. Singletons of the parent are left to the parent.
+     * The injector can not be closed twice, the second call does nothing.
+     * If closing some singletons fails, then the others are still closed and IllegalStateException() is thrown.
+     */
+    @Override
+    public synchronized void close(Executor executor) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        new SingletonShutdown(container).run(executor);
+    }
+
+    /**
+     * Puts the binding into the container and drops the provider cached for the previous binding.
+     * If the container is frozen, then IllegalStateException() is thrown.
+     */
+    private synchronized void register(Key<?> key, Binding binding) {
+        if (frozen) {
+            throw new IllegalStateException("Injector is frozen, " + key + " can not be bound");
+        }
+        container.put(key, binding);
+        providers.remove(key);
+    }
+
+
+    /**
+     * Validates the class and chooses its constructor in a single pass over the constructors.
+     * If the number of annotated constructors is greater than 1, then TooManyConstructorsException() is thrown.
+     * If there is no annotated constructor, then a constructor with no arguments is used,
       otherwise a ConstructorNotFoundException() is thrown.
-     * @return true.
+     * @return Construction plan with the chosen constructor.
      */
-    private boolean validateClass(Class<?> impl) {
-        long numberOfConstructors = Arrays.stream(impl.getConstructors())
-                .filter(x -> x.isAnnotationPresent(ANNOTATION_CLASS))
-                .count();
-        if (numberOfConstructors > 1) {
-            throw new TooManyConstructorsException();
+    private ConstructionPlan createPlan(Key<?> key, Class<?> impl) {
+        Constructor<?> annotatedConstructor = null;
+        Constructor<?> constructorWithoutArguments = null;
+        for (Constructor<?> constructor : impl.getConstructors()) {
+            if (constructor.isAnnotationPresent(ANNOTATION_CLASS)) {
+                if (annotatedConstructor != null) {
+                    throw new TooManyConstructorsException(key, impl);
+                }
+                annotatedConstructor = constructor;
+            } else if (constructor.getParameterCount() == 0) {
+                constructorWithoutArguments = constructor;
+            }
+        }
+        if (annotatedConstructor != null) {
+            return createPlan(key, impl, annotatedConstructor);
         }
-        if (numberOfConstructors < 1) {
-            Arrays.stream(impl.getConstructors())
-                    .filter(x -> x.getParameterCount() == 0)
-                    .findFirst()
-                    .orElseThrow(ConstructorNotFoundException::new);
+        if (constructorWithoutArguments != null) {
+            return createPlan(key, impl, constructorWithoutArguments);
         }
-        return true;
+        throw new ConstructorNotFoundException(key, impl);
+    }
+
+    private ConstructionPlan createPlan(Key<?> key, Class<?> impl, Constructor<?> constructor) {
+        return new ConstructionPlan(key, impl, constructor, instantiationStrategy.createInstantiator(constructor));
     }
 
     /**
-     * Looking for a pair in a container.
-     * If there is no pair, then null is returned.
-     * If there is a pair, then it returns the bean.
+     * Looking for a binding in a container, a child injector then asks its parent.
+     * If there is no binding, then null is returned.
+     * If there is a binding, then it returns the bean.
      * @return Bean or null.
      */
-    private <T> Object findBean(Class<T> type)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        Pair<BeanScope, Object> scopeAndBean = container.get(type);
-        if (scopeAndBean != null && scopeAndBean.getKey().equals(BeanScope.PROTOTYPE)) {                 //PROTOTYPE
-            return (T) getPrototypeBean(scopeAndBean);
-        }
-        if (scopeAndBean != null && scopeAndBean.getKey().equals(BeanScope.SINGLETON)) {                 //SINGLETON
-            return (T) getSingletonBean(type, scopeAndBean);
+    private Object findBean(Key<?> key) {
+        Binding binding = container.get(key);
+        if (binding != null) {
+            return binding.getInstance(this);
         }
-        return null;
+        return parent != null ? getProvider(key).getInstance() : null;
     }
 
     /**
-     * @return Prototype bean.
+     * @return Binding of this injector or its ancestors, null if there is none.
      */
-    private <T> Object getPrototypeBean(Pair<BeanScope, Object> scopeAndBean)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        return buildBean((Class<?>) scopeAndBean.getValue());
+    Binding findBinding(Key<?> key) {
+        Binding binding = container.get(key);
+        return binding != null || parent == null ? binding : parent.findBinding(key);
+    }
+
+    /**
+     * Injects the dependencies and creates the required bean using the cached instantiator of the plan,
+      then calls its init callbacks and waits for the asynchronous ones.
+     * Failures of the constructor, the injected methods and the callbacks are wrapped in BeanCreationException(),
+      failures of the dependencies get the key of this bean prepended to their dependency path.
+     * Every failure is reported to the listener once, at the innermost bean it unwinds through.
+     * @param scope scope of the binding, reported to the tracer.
+     * @return Bean.
+     */
+    Object buildBean(ConstructionPlan plan, BeanScope scope) {
+        if (tracer != null) {
+            return buildTracedBean(plan, scope);
+        }
+        return buildInitializedBean(plan);
+    }
+
+    private Object buildTracedBean(ConstructionPlan plan, BeanScope scope) {
+        ConstructionTracer.Span span = tracer.begin(plan.getKey(), scope);
+        boolean failed = true;
+        try {
+            Object bean = buildInitializedBean(plan);
+            failed = false;
+            return bean;
+        } finally {
+            tracer.end(span, failed);
+        }
+    }
+
+    private Object buildInitializedBean(ConstructionPlan plan) {
+        try {
+            Object bean = listener != null ? buildObservedBean(plan) : construct(plan);
+            CompletableFuture<?> initialization = plan.getLifecycleMethods().postConstruct(bean, plan.getKey());
+            if (initialization != null) {
+                try {
+                    initialization.join();
+                } catch (CompletionException e) {
+                    throw new BeanCreationException(plan.getKey(), e.getCause());
+                }
+            }
+            return bean;
+        } catch (InjectionException e) {
+            throw reportFailure(plan, e).prependPath(plan.getKey());
+        } catch (RuntimeException e) {
+            throw reportFailure(plan, new BeanCreationException(plan.getKey(), e));
+        }
     }
 
     /**
-     * Checks if the bean is initialized.
-     * If yes, then returns it.
-     * If not, then it is initialized.
-     * @return Singleton bean.
+     * Same as buildBean() for a singleton, but does not wait for the asynchronous init callbacks.
+     * The span of the bean ends when the callbacks are started.
+     * @return Future of the bean, completed when its init callbacks complete.
      */
-    private <T> Object getSingletonBean(Class<T> type, Pair<BeanScope, Object> scopeAndBean)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        if (scopeAndBean.getValue() instanceof Class<?>) {                                                                //lazy initialization
-            Object initializedBean = buildBean((Class<?>) scopeAndBean.getValue());
-            Pair<BeanScope, Object> scopeAndInitializedSingletonBean = new Pair<>(BeanScope.SINGLETON, initializedBean);
-            container.put(type, scopeAndInitializedSingletonBean);
-            return (T) initializedBean;
+    CompletableFuture<Object> buildBeanAsync(ConstructionPlan plan) {
+        Object bean;
+        CompletableFuture<?> initialization;
+        ConstructionTracer.Span span = tracer != null ? tracer.begin(plan.getKey(), BeanScope.SINGLETON) : null;
+        boolean failed = true;
+        try {
+            bean = listener != null ? buildObservedBean(plan) : construct(plan);
+            initialization = plan.getLifecycleMethods().postConstruct(bean, plan.getKey());
+            failed = false;
+        } catch (InjectionException e) {
+            throw reportFailure(plan, e).prependPath(plan.getKey());
+        } catch (RuntimeException e) {
+            throw reportFailure(plan, new BeanCreationException(plan.getKey(), e));
+        } finally {
+            if (span != null) {
+                tracer.end(span, failed);
+            }
+        }
+        if (initialization == null) {
+            return CompletableFuture.completedFuture(bean);
+        }
+        return initialization.handle((result, e) -> {
+            if (e != null) {
+                throw reportFailure(plan, new BeanCreationException(plan.getKey(),
+                        e instanceof CompletionException ? e.getCause() : e));
+            }
+            return bean;
+        });
+    }
+
+    private Object construct(ConstructionPlan plan) {
+        Object bean = instantiate(plan, findDependencyBeans(plan));
+        injectMembers(plan, bean);
+        return bean;
+    }
+
+    private static Object instantiate(ConstructionPlan plan, Object[] arguments) {
+        try {
+            return plan.getInstantiator().newInstance(arguments);
+        } catch (InvocationTargetException e) {
+            throw new BeanCreationException(plan.getKey(), e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new BeanCreationException(plan.getKey(), e);
+        }
+    }
+
+    private void injectMembers(ConstructionPlan plan, Object bean) {
+        InjectionPoints injectionPoints = plan.getInjectionPoints();
+        if (!injectionPoints.isEmpty()) {
+            injectionPoints.inject(this, bean, plan.getKey());
         }
-        return (T) scopeAndBean.getValue();
     }
 
     /**
-     * Injects the dependencies and creates the required bean.
+     * Same as construct(), but reports the construction times to the listener.
      * @return Bean.
      */
-    private Object buildBean(Class<?> impl)
-            throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-        Constructor<?> constructor = findCorrectConstructor(impl);
-        Class<?>[] argumentTypes = constructor.getParameterTypes();
-        Object[] arguments = findDependencyBeans(argumentTypes);
-        return impl.getDeclaredConstructor(argumentTypes).newInstance(arguments);
+    private Object buildObservedBean(ConstructionPlan plan) {
+        long start = System.nanoTime();
+        Object[] arguments = findDependencyBeans(plan);
+        long constructorStart = System.nanoTime();
+        Object bean = instantiate(plan, arguments);
+        long constructorEnd = System.nanoTime();
+        injectMembers(plan, bean);
+        listener.onBeanConstructed(plan.getKey(), System.nanoTime() - start, constructorEnd - constructorStart);
+        return bean;
+    }
+
+    /**
+     * Reports the failure to the listener at the innermost bean it unwinds through, that is the bean that failed
+      or the bean whose dependency is missing. The enclosing beans only pass it on, so it is counted once.
+     * @return The failure.
+     */
+    private InjectionException reportFailure(ConstructionPlan plan, InjectionException failure) {
+        if (listener != null && failure.markReported()) {
+            listener.onResolutionFailure(plan.getKey(), failure);
+        }
+        return failure;
+    }
+
+    /**
+     * @return Listener of this injector or null, if there is none.
+     */
+    InjectionListener getListener() {
+        return listener;
     }
 
     /**
-     * Looks for a constructor with an annotation,
-      if not found, looks for a constructor with no arguments.
-     * @return A constructor with an annotation or a constructor without arguments and annotations.
+     * Looks for the dependencies needed to create the bean.
+     * Once the injector is frozen, they are taken from the binding table by id,
+      otherwise they are looked up in the container.
+     * @return An array of beans or an empty array.
+     */
+    private Object[] findDependencyBeans(ConstructionPlan plan) {
+        ConstructionPlan.DependencyKind[] kinds = plan.getDependencyKinds();
+        if (kinds != null) {
+            return findDependencyBeans(plan.getDependencyKeys(), kinds);
+        }
+        Binding[] table = bindingTable;
+        if (table == null) {
+            return findDependencyBeans(plan.getDependencyKeys());
+        }
+        int[] ids = plan.getDependencyIds();
+        Object[] dependencyBeans = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            dependencyBeans[i] = table[ids[i]].getInstance(this);
+        }
+        return dependencyBeans;
+    }
+
+    /**
+     * Looks for the dependencies of a constructor with deferred or optional parameters.
+     * A Provider parameter gets the cached provider of the type, a lazy parameter gets a proxy calling it,
+      an Optional parameter gets the bean or an empty Optional.
+     * If there is no binding for a required dependency, then a BindingNotFoundException() is thrown.
+     * @return An array of beans, providers, proxies and optionals.
      */
-    private Constructor<?> findCorrectConstructor(Class<?> impl) {
-        return Arrays.stream(impl.getConstructors())
-                .filter(x -> x.isAnnotationPresent(ANNOTATION_CLASS))
-                .findFirst()
-                .orElse(Arrays.stream(impl.getConstructors())
-                        .filter(x -> x.getParameterCount() == 0)
-                        .findFirst()
-                        .orElseThrow(ConstructorNotFoundException::new));
+    private Object[] findDependencyBeans(Key<?>[] keys, ConstructionPlan.DependencyKind[] kinds) {
+        Object[] dependencyBeans = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (kinds[i] == ConstructionPlan.DependencyKind.DIRECT) {
+                dependencyBeans[i] = findDependencyBean(keys[i]);
+                continue;
+            }
+            if (kinds[i] == ConstructionPlan.DependencyKind.OPTIONAL) {
+                dependencyBeans[i] = Optional.ofNullable(findBean(keys[i]));
+                continue;
+            }
+            Provider<?> provider = getProvider(keys[i]);
+            if (provider == EMPTY_PROVIDER) {
+                throw new BindingNotFoundException(keys[i]);
+            }
+            dependencyBeans[i] = kinds[i] == ConstructionPlan.DependencyKind.PROVIDER
+                    ? provider : LazyProxy.create(keys[i].getRawType(), provider);
+        }
+        return dependencyBeans;
     }
 
     /**
@@ -152,16 +928,19 @@ public class InjectorImpl implements Injector {
      * If there are no required dependencies, then a BindingNotFoundException() is thrown.
      * @return An array of beans or an empty array.
      */
-    private Object[] findDependencyBeans(Class<?>[] classes)
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        Object[] dependencyBeans = new Object[classes.length];
-        for (int i = 0; i < classes.length; i++) {
-            Object bean = findBean(classes[i]);
-            if (bean == null) {
-                throw new BindingNotFoundException();
-            }
-            dependencyBeans[i] = bean;
+    Object[] findDependencyBeans(Key<?>[] keys) {
+        Object[] dependencyBeans = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            dependencyBeans[i] = findDependencyBean(keys[i]);
         }
         return dependencyBeans;
     }
+
+    private Object findDependencyBean(Key<?> key) {
+        Object bean = findBean(key);
+        if (bean == null) {
+            throw new BindingNotFoundException(key);
+        }
+        return bean;
+    }
 }
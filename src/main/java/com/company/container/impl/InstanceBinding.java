@@ -0,0 +1,27 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+
+/**
+ * Returns an instance that already exists, nothing is ever built.
+ */
+final class InstanceBinding extends Binding {
+
+    private final Object instance;
+
+    InstanceBinding(Key<?> key, Object instance) {
+        super(key);
+        this.instance = instance;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.SINGLETON;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        return instance;
+    }
+}
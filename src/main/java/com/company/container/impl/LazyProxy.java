@@ -0,0 +1,52 @@
+package com.company.container.impl;
+
+import com.company.container.Provider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Handler of a {@code @Lazy} proxy. The bean is taken from the provider on the first call
+ * and all calls, including the ones of Object, are delegated to it.
+ */
+final class LazyProxy implements InvocationHandler {
+
+    private final Provider<?> provider;
+    private volatile Object target;
+
+    private LazyProxy(Provider<?> provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * @return Proxy of the interface building the bean of the provider on first use.
+     */
+    static Object create(Class<?> type, Provider<?> provider) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyProxy(provider));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(getTarget(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object getTarget() {
+        Object result = target;
+        if (result == null) {
+            synchronized (this) {
+                result = target;
+                if (result == null) {
+                    result = provider.getInstance();
+                    target = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+package com.company.container.impl;
+
+import com.company.annotation.PostConstruct;
+import com.company.container.Key;
+import com.company.exception.BeanCreationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Init callbacks of a class, the methods annotated with {@link PostConstruct}, found once per class
+ * and cached in a ClassValue. Every callback is a method handle adapted to (Object) Object.
+ * Callbacks of superclasses are called first, a method overridden in a subclass is called only
+ * if the override is annotated.
+ */
+final class LifecycleMethods {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CALLBACK_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final LifecycleMethods NONE = new LifecycleMethods(new MethodHandle[0], new boolean[0]);
+    private static final ClassValue<LifecycleMethods> CACHE = new ClassValue<LifecycleMethods>() {
+        @Override
+        protected LifecycleMethods computeValue(Class<?> type) {
+            return find(type);
+        }
+    };
+
+    private final MethodHandle[] postConstructs;
+    private final boolean[] asynchronous;
+
+    private LifecycleMethods(MethodHandle[] postConstructs, boolean[] asynchronous) {
+        this.postConstructs = postConstructs;
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * @return Lifecycle methods of the class.
+     */
+    static LifecycleMethods of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return Lifecycle methods of nothing.
+     */
+    static LifecycleMethods none() {
+        return NONE;
+    }
+
+    boolean isEmpty() {
+        return postConstructs.length == 0;
+    }
+
+    /**
+     * Calls the init callbacks in order. Asynchronous callbacks are not waited for, so the following
+      callbacks run while they are in progress.
+     * Exceptions thrown by the callbacks are wrapped in BeanCreationException() with the key of the bean.
+     * @return Future completed when all asynchronous callbacks complete or null, if all callbacks are synchronous.
+     */
+    CompletableFuture<?> postConstruct(Object bean, Key<?> key) {
+        List<CompletableFuture<?>> pending = null;
+        for (int i = 0; i < postConstructs.length; i++) {
+            Object result;
+            try {
+                result = postConstructs[i].invokeExact(bean);
+            } catch (Throwable e) {
+                throw new BeanCreationException(key, e);
+            }
+            if (!asynchronous[i]) {
+                continue;
+            }
+            if (result == null) {
+                throw new BeanCreationException(key, new NullPointerException("Init callback returned null"));
+            }
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+            pending.add((CompletableFuture<?>) result);
+        }
+        if (pending == null) {
+            return null;
+        }
+        return pending.size() == 1 ? pending.get(0) : CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static LifecycleMethods find(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.addFirst(current);
+        }
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> current : hierarchy) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                String signature = Modifier.isPrivate(method.getModifiers())
+                        ? current.getName() + '#' + method.getName() : method.getName();
+                if (method.getParameterCount() == 0) {
+                    methods.remove(signature);
+                }
+                if (method.isAnnotationPresent(PostConstruct.class)) {
+                    methods.put(signature, method);
+                }
+            }
+        }
+        if (methods.isEmpty()) {
+            return NONE;
+        }
+        MethodHandle[] handles = new MethodHandle[methods.size()];
+        boolean[] asynchronous = new boolean[handles.length];
+        int i = 0;
+        for (Method method : methods.values()) {
+            asynchronous[i] = method.getReturnType() == CompletableFuture.class;
+            handles[i++] = createHandle(method);
+        }
+        return new LifecycleMethods(handles, asynchronous);
+    }
+
+    /**
+     * If the callback has parameters or returns something else than void or CompletableFuture,
+      then IllegalArgumentException() is thrown.
+     */
+    private static MethodHandle createHandle(Method method) {
+        if (method.getParameterCount() != 0 || method.getReturnType() != void.class
+                && method.getReturnType() != CompletableFuture.class) {
+            throw new IllegalArgumentException("Init callback " + method
+                    + " must have no parameters and return void or CompletableFuture");
+        }
+        try {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method).asType(CALLBACK_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Init callback " + method + " can not be called", e);
+        }
+    }
+}
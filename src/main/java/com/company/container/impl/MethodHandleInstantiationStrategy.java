@@ -0,0 +1,136 @@
+package com.company.container.impl;
+
+import com.company.container.InstantiationStrategy;
+import com.company.container.Instantiator;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * Creates beans through method handles, which the JIT can inline unlike reflective calls.
+ * Constructors without arguments are turned into a {@link Supplier} generated by {@link LambdaMetafactory},
+ * so creating such a bean is a plain {@code new}. The Supplier is generated once per class and cached in a ClassValue,
+ * so binding the class again, in this injector or in a child, does not define another class.
+ * Constructors that can not be accessed through method handles are delegated to the fallback strategy.
+ */
+public class MethodHandleInstantiationStrategy implements InstantiationStrategy {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType SUPPLIER_FACTORY_TYPE = MethodType.methodType(Supplier.class);
+    private static final MethodType SUPPLIER_GET_TYPE = MethodType.methodType(Object.class);
+    private static final ClassValue<Instantiator> SUPPLIERS = new ClassValue<Instantiator>() {
+        @Override
+        protected Instantiator computeValue(Class<?> impl) {
+            return createSupplierInstantiator(impl);
+        }
+    };
+
+    private final InstantiationStrategy fallback;
+
+    public MethodHandleInstantiationStrategy() {
+        this(new ReflectionInstantiationStrategy());
+    }
+
+    public MethodHandleInstantiationStrategy(InstantiationStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Instantiator createInstantiator(Constructor<?> constructor) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            return fallback.createInstantiator(constructor);
+        }
+        if (constructor.getParameterCount() == 0) {
+            Instantiator instantiator = SUPPLIERS.get(constructor.getDeclaringClass());
+            if (instantiator != null) {
+                return instantiator;
+            }
+        }
+        return createSpreaderInstantiator(handle, constructor.getParameterCount());
+    }
+
+    /**
+     * Calls a provider method of the module through a method handle bound to the module.
+     * If the method can not be accessed, then IllegalArgumentException() is thrown.
+     * @return Instantiator.
+     */
+    static Instantiator createMethodInstantiator(Method method, Object module) {
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Provider method " + method + " can not be accessed", e);
+        }
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(module);
+        }
+        return createSpreaderInstantiator(handle, method.getParameterCount());
+    }
+
+    /**
+     * Generates a Supplier class calling the constructor without arguments directly.
+     * @return Instantiator or null, if the lambda can not be generated for this class.
+     */
+    private static Instantiator createSupplierInstantiator(Class<?> impl) {
+        if (!isVisible(impl)) {
+            return null;
+        }
+        Supplier<?> supplier;
+        try {
+            MethodHandle handle = LOOKUP.unreflectConstructor(impl.getDeclaredConstructor());
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get", SUPPLIER_FACTORY_TYPE,
+                    SUPPLIER_GET_TYPE, handle, MethodType.methodType(impl));
+            supplier = (Supplier<?>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return null;
+        }
+        return arguments -> {
+            try {
+                return supplier.get();
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        };
+    }
+
+    /**
+     * Adapts the constructor or method handle to (Object[])Object, so it can be called with invokeExact.
+     * @return Instantiator.
+     */
+    private static Instantiator createSpreaderInstantiator(MethodHandle handle, int parameterCount) {
+        MethodHandle spreader = handle.asType(handle.type().changeReturnType(Object.class))
+                .asSpreader(Object[].class, parameterCount);
+        return arguments -> {
+            try {
+                return (Object) spreader.invokeExact(arguments);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        };
+    }
+
+    /**
+     * The generated lambda class is linked against the class loader of this class,
+      so the bean class must be reachable from it.
+     * @return true if the bean class is visible from the class loader of this class.
+     */
+    private static boolean isVisible(Class<?> impl) {
+        try {
+            return Class.forName(impl.getName(), false, MethodHandleInstantiationStrategy.class.getClassLoader()) == impl;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Binding of a {@code Set<T>} or a {@code Map<K, T>} assembled from contributions, each contribution is
+ * a binding of its own. A new contribution replaces the binding with a copy holding one more element,
+ * so the elements of a binding are a fixed array and the collection is built by iterating it.
+ * Collections are immutable and backed by arrays, lookups in them are linear: they are meant to be iterated.
+ * If all contributions are singletons, then the collection is built once and shared.
+ */
+final class MultiBinding extends Binding {
+
+    private static final Object[] NO_MAP_KEYS = new Object[0];
+
+    private final Binding[] elements;
+    private final Object[] mapKeys;
+    private final Key<?>[] dependencyKeys;
+    private final boolean[] deferredDependencies;
+    private final boolean[] optionalDependencies;
+    private final boolean singleton;
+    private volatile Object collection;
+
+    private MultiBinding(Key<?> key, Binding[] elements, Object[] mapKeys) {
+        super(key);
+        this.elements = elements;
+        this.mapKeys = mapKeys;
+        List<Key<?>> keys = new ArrayList<>();
+        boolean allSingletons = true;
+        for (Binding element : elements) {
+            keys.addAll(Arrays.asList(element.getDependencyKeys()));
+            allSingletons &= element.getScope() == BeanScope.SINGLETON;
+        }
+        this.dependencyKeys = keys.toArray(new Key<?>[0]);
+        this.deferredDependencies = new boolean[dependencyKeys.length];
+        this.optionalDependencies = new boolean[dependencyKeys.length];
+        int index = 0;
+        for (Binding element : elements) {
+            for (int i = 0; i < element.getDependencyKeys().length; i++, index++) {
+                deferredDependencies[index] = element.isDeferredDependency(i);
+                optionalDependencies[index] = element.isOptionalDependency(i);
+            }
+        }
+        this.singleton = allSingletons;
+    }
+
+    /**
+     * @return Empty binding of {@code Set<T>}.
+     */
+    static MultiBinding setOf(Class<?> type) {
+        return new MultiBinding(Key.of(new CollectionType(Set.class, type)), new Binding[0], null);
+    }
+
+    /**
+     * @return Empty binding of {@code Map<K, T>}.
+     */
+    static MultiBinding mapOf(Class<?> keyType, Class<?> type) {
+        return new MultiBinding(Key.of(new CollectionType(Map.class, keyType, type)), new Binding[0], NO_MAP_KEYS);
+    }
+
+    /**
+     * If the map already has the key, then IllegalArgumentException() is thrown.
+     * @param mapKey key of the element in the map, ignored for a set.
+     * @return Copy of this binding with the element added.
+     */
+    MultiBinding with(Binding element, Object mapKey) {
+        Binding[] newElements = Arrays.copyOf(elements, elements.length + 1);
+        newElements[elements.length] = element;
+        if (mapKeys == null) {
+            return new MultiBinding(getKey(), newElements, null);
+        }
+        for (Object existing : mapKeys) {
+            if (existing.equals(mapKey)) {
+                throw new IllegalArgumentException(getKey() + " already has an element for " + mapKey);
+            }
+        }
+        Object[] newMapKeys = Arrays.copyOf(mapKeys, mapKeys.length + 1);
+        newMapKeys[mapKeys.length] = mapKey;
+        return new MultiBinding(getKey(), newElements, newMapKeys);
+    }
+
+    /**
+     * @return Bindings of the contributions. The array is shared, do not modify it.
+     */
+    Binding[] getElements() {
+        return elements;
+    }
+
+    /**
+     * The collection lives as long as its shortest lived element, which the validator checks element by element.
+     */
+    @Override
+    BeanScope getScope() {
+        return singleton ? BeanScope.SINGLETON : BeanScope.PROTOTYPE;
+    }
+
+    /**
+     * @return Dependency keys of all elements in contribution order.
+     */
+    @Override
+    Key<?>[] getDependencyKeys() {
+        return dependencyKeys;
+    }
+
+    @Override
+    boolean isDeferredDependency(int index) {
+        return deferredDependencies[index];
+    }
+
+    @Override
+    boolean isOptionalDependency(int index) {
+        return optionalDependencies[index];
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        Object result = collection;
+        if (result != null) {
+            return result;
+        }
+        Object[] values = new Object[elements.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = elements[i].getInstance(injector);
+        }
+        result = mapKeys == null ? new ArraySet(values) : new ArrayMap(mapKeys, values);
+        if (singleton) {
+            collection = result;                            //every thread builds the same singletons
+        }
+        return result;
+    }
+
+    private static final class ArraySet extends AbstractSet<Object> {
+
+        private final Object[] values;
+
+        private ArraySet(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new ArrayIterator<>(values);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static final class ArrayMap extends AbstractMap<Object, Object> {
+
+        private final Object[] keys;
+        private final Object[] values;
+        private final Set<Map.Entry<Object, Object>> entries;
+
+        @SuppressWarnings("unchecked")
+        private ArrayMap(Object[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+            Object[] entryArray = new Object[keys.length];
+            for (int i = 0; i < entryArray.length; i++) {
+                entryArray[i] = new SimpleImmutableEntry<>(keys[i], values[i]);
+            }
+            this.entries = (Set<Map.Entry<Object, Object>>) (Set<?>) new ArraySet(entryArray);
+        }
+
+        @Override
+        public Object get(Object key) {
+            int index = indexOf(key);
+            return index >= 0 ? values[index] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return entries;
+        }
+    }
+
+    private static final class ArrayIterator<E> implements Iterator<E> {
+
+        private final Object[] values;
+        private int index;
+
+        private ArrayIterator(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index == values.length) {
+                throw new NoSuchElementException();
+            }
+            return (E) values[index++];
+        }
+    }
+
+    /**
+     * Type of a multibinding key, equal to the type of a {@code Set<T>} or {@code Map<K, T>} parameter.
+     */
+    private static final class CollectionType implements ParameterizedType {
+
+        private final Class<?> rawType;
+        private final Type[] typeArguments;
+
+        private CollectionType(Class<?> rawType, Type... typeArguments) {
+            this.rawType = rawType;
+            this.typeArguments = typeArguments;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        /**
+         * Same as the ParameterizedType of the JDK, so the keys of both are equal.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType type = (ParameterizedType) o;
+            return rawType.equals(type.getRawType()) && type.getOwnerType() == null
+                    && Arrays.equals(typeArguments, type.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(typeArguments) ^ rawType.hashCode();         //owner type is null
+        }
+
+        @Override
+        public String getTypeName() {
+            StringBuilder name = new StringBuilder(rawType.getName()).append('<');
+            for (int i = 0; i < typeArguments.length; i++) {
+                name.append(i > 0 ? ", " : "").append(typeArguments[i].getTypeName());
+            }
+            return name.append('>').toString();
+        }
+
+        @Override
+        public String toString() {
+            return getTypeName();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.company.container.impl;
+
+import com.company.container.BeanPool;
+import com.company.container.PoolStatistics;
+import com.company.container.Pooled;
+import com.company.container.Provider;
+import com.company.enm.BeanScope;
+import com.company.enm.PoolPolicy;
+import com.company.exception.BeanCreationException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of beans. Idle beans are kept in a lock-free queue, with the BLOCK policy
+ * a semaphore limits the number of beans in use to the pool size.
+ * Pooled beans are acquired through the pool only, they can not be injected into other beans.
+ */
+final class PooledBinding extends Binding implements BeanPool<Object> {
+
+    private final ConstructionPlan plan;
+    private final Provider<Object> factory;
+    private final int maxSize;
+    private final PoolPolicy policy;
+    private final Queue<Object> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Semaphore permits;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+
+    PooledBinding(InjectorImpl injector, ConstructionPlan plan, int maxSize, PoolPolicy policy) {
+        super(plan.getKey());
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.plan = plan;
+        this.factory = new BindingProvider<>(injector, new PrototypeBinding(plan, BeanScope.POOLED));
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.permits = policy == PoolPolicy.BLOCK ? new Semaphore(maxSize) : null;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.POOLED;
+    }
+
+    /**
+     * A bean taken without a lease would never be returned, so this always fails with BeanCreationException().
+     */
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        throw new BeanCreationException(getKey(),
+                new IllegalStateException("Pooled beans are acquired from Injector.getPool()"));
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    PoolPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public Pooled<Object> acquire() {
+        if (permits != null && !permits.tryAcquire()) {
+            waits.increment();
+            permits.acquireUninterruptibly();
+        }
+        return lease();
+    }
+
+    @Override
+    public Pooled<Object> tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (permits != null && !permits.tryAcquire()) {
+            waits.increment();
+            if (!permits.tryAcquire(timeout, unit)) {
+                return null;
+            }
+        }
+        return lease();
+    }
+
+    @Override
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(hits.sum(), misses.sum(), waits.sum(), idleCount.get());
+    }
+
+    private Pooled<Object> lease() {
+        Object bean;
+        try {
+            bean = idle.poll();
+            if (bean != null) {
+                idleCount.decrementAndGet();
+                hits.increment();
+            } else {
+                misses.increment();
+                bean = factory.getInstance();
+            }
+        } catch (RuntimeException e) {
+            if (permits != null) {
+                permits.release();
+            }
+            throw e;
+        }
+        return new Lease(bean);
+    }
+
+    private void release(Object bean) {
+        if (idleCount.incrementAndGet() <= maxSize) {
+            idle.offer(bean);
+        } else {
+            idleCount.decrementAndGet();                    //GROW created an extra bean, let it go
+        }
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    private final class Lease implements Pooled<Object> {
+
+        private final Object bean;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public Object get() {
+            if (released.get()) {
+                throw new IllegalStateException("Bean has been returned to the pool");
+            }
+            return bean;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(bean);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.company.container.impl;
+
+import com.company.enm.BeanScope;
+
+
+/**
+ * Builds a new bean on every request.
+ * REQUEST, CUSTOM and POOLED bindings build their beans through a prototype binding that knows their scope.
+ */
+final class PrototypeBinding extends Binding {
+
+    private final ConstructionPlan plan;
+    private final BeanScope builtFor;
+
+    PrototypeBinding(ConstructionPlan plan) {
+        this(plan, BeanScope.PROTOTYPE);
+    }
+
+    /**
+     * @param builtFor scope of the binding caching the beans, reported to the tracer.
+     */
+    PrototypeBinding(ConstructionPlan plan, BeanScope builtFor) {
+        super(plan.getKey());
+        this.plan = plan;
+        this.builtFor = builtFor;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.PROTOTYPE;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        return injector.buildBean(plan, builtFor);
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+}
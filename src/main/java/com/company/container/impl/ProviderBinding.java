@@ -0,0 +1,37 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.container.Provider;
+import com.company.enm.BeanScope;
+import com.company.exception.BeanCreationException;
+import com.company.exception.InjectionException;
+
+/**
+ * Delegates to a provider on every request, the provider decides whether the bean is new.
+ * Failures of the provider are wrapped in BeanCreationException() with the key of the binding.
+ */
+final class ProviderBinding extends Binding {
+
+    private final Provider<?> provider;
+
+    ProviderBinding(Key<?> key, Provider<?> provider) {
+        super(key);
+        this.provider = provider;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.PROTOTYPE;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        try {
+            return provider.getInstance();
+        } catch (InjectionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BeanCreationException(getKey(), e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.container.impl;
+
+import com.company.container.InstantiationStrategy;
+import com.company.container.Instantiator;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Creates beans with {@link Constructor#newInstance(Object...)}.
+ */
+public class ReflectionInstantiationStrategy implements InstantiationStrategy {
+
+    @Override
+    public Instantiator createInstantiator(Constructor<?> constructor) {
+        return constructor::newInstance;
+    }
+}
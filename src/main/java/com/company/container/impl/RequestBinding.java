@@ -0,0 +1,45 @@
+package com.company.container.impl;
+
+import com.company.container.Provider;
+import com.company.container.RequestContext;
+import com.company.enm.BeanScope;
+import com.company.exception.BeanCreationException;
+
+/**
+ * Builds one bean per request context. Outside of a request context or in a closed one,
+ * BeanCreationException() is thrown with IllegalStateException() as the cause.
+ */
+final class RequestBinding extends Binding {
+
+    private final ConstructionPlan plan;
+    private final Provider<Object> unscoped;
+
+    RequestBinding(InjectorImpl injector, ConstructionPlan plan) {
+        super(plan.getKey());
+        this.plan = plan;
+        this.unscoped = new BindingProvider<>(injector, new PrototypeBinding(plan, BeanScope.REQUEST));
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.REQUEST;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        RequestContext context = RequestContext.current();
+        if (context == null) {
+            throw new BeanCreationException(getKey(), new IllegalStateException("No request context"));
+        }
+        try {
+            return context.computeIfAbsent(this, unscoped);
+        } catch (IllegalStateException e) {                   //the context has been closed
+            throw new BeanCreationException(getKey(), e);
+        }
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+}
@@ -0,0 +1,208 @@
+package com.company.container.impl;
+
+import com.company.container.InjectionListener;
+import com.company.enm.BeanScope;
+import com.company.exception.CircularDependencyException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the instance of a singleton and guarantees that it is constructed exactly once.
+ * Initialization is claimed with a CAS on this binding only, so singletons of different bindings
+ * are initialized concurrently. Threads that lose the race wait for the winner instead of building
+ * their own instance. After initialization, reading the bean is a single volatile load.
+ * The bean is published only after its init callbacks complete, asynchronous callbacks included.
+ * A waiting thread is registered with the initialization it waits for, so a cycle of singletons
+ * first requested from several threads at once fails instead of leaving the threads waiting on each other.
+ */
+final class SingletonBinding extends Binding {
+
+    private static final ConcurrentMap<Thread, Initialization> WAITING = new ConcurrentHashMap<>();
+
+    private final ConstructionPlan plan;
+    private final AtomicReference<Initialization> initialization = new AtomicReference<>();
+    private volatile Object instance;
+
+    SingletonBinding(ConstructionPlan plan) {
+        super(plan.getKey());
+        this.plan = plan;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.SINGLETON;
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return Initialized bean or null, if the bean has not been built yet.
+     */
+    Object getInstanceIfInitialized() {
+        return instance;
+    }
+
+    /**
+     * Returns the bean, building it on the first call.
+     * If the same thread requests the bean while building it, or the thread building it waits, directly
+      or through other threads, for a singleton this thread is building, then CircularDependencyException() is thrown.
+     * If building fails, then the exception is rethrown and the next call tries again.
+     * @return Singleton bean.
+     */
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        Object bean = instance;
+        if (bean != null) {
+            return bean;
+        }
+        return initialize(injector);
+    }
+
+    /**
+     * Same as getInstance(), but does not wait for the asynchronous init callbacks of the bean, so the thread
+      is free while they are in progress. If another thread is building the bean, then this one waits for it.
+     * @return Future of the initialized bean.
+     */
+    CompletableFuture<Object> getInstanceAsync(InjectorImpl injector) {
+        Object bean = instance;
+        if (bean != null) {
+            return CompletableFuture.completedFuture(bean);
+        }
+        Initialization own = new Initialization();
+        if (!initialization.compareAndSet(null, own)) {
+            return CompletableFuture.completedFuture(initialize(injector));
+        }
+        CompletableFuture<Object> future;
+        InjectionListener listener = injector.getListener();
+        long start = listener != null ? System.nanoTime() : 0;
+        try {
+            bean = instance;                                 //initialized between the last check and the CAS
+            future = bean != null ? CompletableFuture.completedFuture(bean) : injector.buildBeanAsync(plan);
+        } catch (RuntimeException | Error e) {
+            release(own);
+            throw e;
+        }
+        own.thread = null;                                   //built, only the callbacks are in progress
+        return future.whenComplete((initialized, e) -> {
+            if (e == null && instance == null) {
+                instance = initialized;
+                if (listener != null) {
+                    listener.onSingletonInitialized(getKey(), System.nanoTime() - start);
+                }
+            }
+            release(own);
+        });
+    }
+
+    private Object initialize(InjectorImpl injector) {
+        Initialization own = null;
+        while (true) {
+            Object bean = instance;
+            if (bean != null) {
+                return bean;
+            }
+            Initialization current = initialization.get();
+            if (current == null) {
+                if (own == null) {
+                    own = new Initialization();
+                }
+                if (initialization.compareAndSet(null, own)) {
+                    return build(injector, own);
+                }
+            } else if (current.thread == Thread.currentThread()) {
+                throw new CircularDependencyException(getKey());
+            } else {
+                await(current);
+            }
+        }
+    }
+
+    /**
+     * Waits for the thread building the bean, unless that thread waits for this one.
+     */
+    private void await(Initialization current) {
+        Thread thread = Thread.currentThread();
+        WAITING.put(thread, current);
+        try {
+            if (leadsTo(current, thread)) {
+                throw new CircularDependencyException(getKey());
+            }
+            current.await();
+        } finally {
+            WAITING.remove(thread);
+        }
+    }
+
+    /**
+     * Follows the chain of building threads and the initializations they wait for.
+     * Every thread registers before it follows the chain, so of the threads closing a cycle at least the last one
+      finds it.
+     * @return true if the chain reaches the thread.
+     */
+    private static boolean leadsTo(Initialization initialization, Thread thread) {
+        int steps = WAITING.size() + 1;                     //a cycle of other threads is not followed forever
+        for (Initialization next = initialization; next != null && steps-- > 0; ) {
+            Thread owner = next.thread;
+            if (owner == thread) {
+                return true;
+            }
+            next = owner != null ? WAITING.get(owner) : null;
+        }
+        return false;
+    }
+
+    private Object build(InjectorImpl injector, Initialization own) {
+        try {
+            Object bean = instance;                          //initialized between the last check and the CAS
+            if (bean == null) {
+                InjectionListener listener = injector.getListener();
+                long start = listener != null ? System.nanoTime() : 0;
+                bean = injector.buildBean(plan, BeanScope.SINGLETON);
+                instance = bean;
+                if (listener != null) {
+                    listener.onSingletonInitialized(getKey(), System.nanoTime() - start);
+                }
+            }
+            return bean;
+        } finally {
+            release(own);
+        }
+    }
+
+    private void release(Initialization own) {
+        initialization.set(null);
+        own.thread = null;                                   //finished, no longer part of any chain of waiting threads
+        own.done.countDown();
+    }
+
+    /**
+     * Marks the thread that is building the bean, waiting threads are released when it finishes.
+     */
+    private static final class Initialization {
+
+        private volatile Thread thread = Thread.currentThread();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
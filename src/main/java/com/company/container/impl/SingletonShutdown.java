@@ -0,0 +1,126 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Closes the AutoCloseable singletons of an injector on an executor. A singleton is closed only after
+ * all beans depending on it are closed, so the singletons are closed in reverse dependency order
+ * and independent branches of the graph are closed concurrently.
+ * Singletons that were never built are skipped. Deferred dependencies do not order the shutdown,
+ * they may close a cycle.
+ */
+final class SingletonShutdown {
+
+    private final Map<Key<?>, Binding> container;
+
+    SingletonShutdown(Map<Key<?>, Binding> container) {
+        this.container = container;
+    }
+
+    /**
+     * Closes every singleton even if closing some of them fails.
+     * If closing fails, then IllegalStateException() is thrown with the other failures suppressed.
+     */
+    void run(Executor executor) {
+        List<Key<?>> order = new ArrayList<>();
+        Set<Key<?>> visited = new HashSet<>();
+        for (Key<?> key : container.keySet()) {
+            sort(key, visited, order);
+        }
+        Map<Key<?>, List<CompletableFuture<Void>>> dependents = new HashMap<>();
+        Map<Key<?>, CompletableFuture<Void>> tasks = new HashMap<>();
+        Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+        for (int i = order.size() - 1; i >= 0; i--) {                 //dependents first
+            Key<?> key = order.get(i);
+            Binding binding = container.get(key);
+            List<CompletableFuture<Void>> before = dependents.getOrDefault(key, Collections.emptyList());
+            CompletableFuture<Void> after = CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]));
+            List<AutoCloseable> closeables = getCloseables(binding);
+            CompletableFuture<Void> task = closeables.isEmpty()
+                    ? after : after.thenRunAsync(() -> close(closeables, failures), executor);
+            tasks.put(key, task);
+            for (Key<?> dependency : getDirectDependencies(binding)) {
+                dependents.computeIfAbsent(dependency, ignored -> new ArrayList<>()).add(task);
+            }
+        }
+        CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0])).join();
+        IllegalStateException failure = null;
+        for (Exception e : failures) {
+            if (failure == null) {
+                failure = new IllegalStateException("Failed to close singletons", e);
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Adds the key to the order after its dependencies.
+     */
+    private void sort(Key<?> key, Set<Key<?>> visited, List<Key<?>> order) {
+        if (!visited.add(key)) {
+            return;
+        }
+        for (Key<?> dependency : getDirectDependencies(container.get(key))) {
+            sort(dependency, visited, order);
+        }
+        order.add(key);
+    }
+
+    /**
+     * @return Dependencies bound in this injector that the bean holds from its construction.
+     */
+    private List<Key<?>> getDirectDependencies(Binding binding) {
+        List<Key<?>> dependencies = new ArrayList<>();
+        Key<?>[] dependencyKeys = binding.getDependencyKeys();
+        for (int i = 0; i < dependencyKeys.length; i++) {
+            if (!binding.isDeferredDependency(i) && container.containsKey(dependencyKeys[i])) {
+                dependencies.add(dependencyKeys[i]);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * @return Built AutoCloseable singletons of the binding, the elements of a multibinding included.
+     */
+    private static List<AutoCloseable> getCloseables(Binding binding) {
+        List<AutoCloseable> closeables = new ArrayList<>();
+        Binding[] bindings = binding instanceof MultiBinding
+                ? ((MultiBinding) binding).getElements() : new Binding[]{binding};
+        for (Binding candidate : bindings) {
+            if (candidate instanceof SingletonBinding) {
+                Object bean = ((SingletonBinding) candidate).getInstanceIfInitialized();
+                if (bean instanceof AutoCloseable) {
+                    closeables.add((AutoCloseable) bean);
+                }
+            }
+        }
+        return closeables;
+    }
+
+    private static void close(List<AutoCloseable> closeables, Queue<Exception> failures) {
+        for (AutoCloseable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                failures.add(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.company.container.impl;
+
+import com.company.container.Key;
+import com.company.container.WarmUpReport;
+import com.company.enm.BeanScope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds all singletons on an executor. Every singleton is scheduled as soon as the singletons
+ * it depends on are built, so independent branches of the graph are built concurrently.
+ * Asynchronous init callbacks do not hold an executor thread, the singletons depending on the bean
+ * are scheduled when they complete.
+ */
+final class SingletonWarmUp {
+
+    private final InjectorImpl injector;
+    private final Map<Key<?>, Binding> container;
+    private final Map<Key<?>, Set<Key<?>>> singletonDependencies = new HashMap<>();
+
+    SingletonWarmUp(InjectorImpl injector, Map<Key<?>, Binding> container) {
+        this.injector = injector;
+        this.container = container;
+    }
+
+    /**
+     * @param order bound keys in topological order.
+     * @return Build time of every singleton.
+     */
+    WarmUpReport run(List<Key<?>> order, Executor executor) {
+        long start = System.nanoTime();
+        Map<Key<?>, Long> initializationNanos = new ConcurrentHashMap<>();
+        Map<Key<?>, CompletableFuture<Void>> tasks = new HashMap<>();
+        for (Key<?> key : order) {
+            if (container.get(key).getScope() != BeanScope.SINGLETON) {
+                continue;
+            }
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (Key<?> dependency : getSingletonDependencies(key)) {
+                dependencies.add(tasks.get(dependency));
+            }
+            tasks.put(key, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                    .thenComposeAsync(ignored -> build(key, initializationNanos), executor));
+        }
+        try {
+            CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        Map<Key<?>, Long> orderedNanos = new LinkedHashMap<>();
+        for (Key<?> key : order) {
+            Long nanos = initializationNanos.get(key);
+            if (nanos != null) {
+                orderedNanos.put(key, nanos);
+            }
+        }
+        return new WarmUpReport(orderedNanos, System.nanoTime() - start);
+    }
+
+    private CompletableFuture<Void> build(Key<?> key, Map<Key<?>, Long> initializationNanos) {
+        long start = System.nanoTime();
+        Binding binding = container.get(key);
+        CompletableFuture<?> bean = binding instanceof SingletonBinding
+                ? ((SingletonBinding) binding).getInstanceAsync(injector)
+                : CompletableFuture.completedFuture(injector.getProvider(key).getInstance());
+        return bean.thenRun(() -> initializationNanos.put(key, System.nanoTime() - start));
+    }
+
+    /**
+     * Prototype dependencies are built together with the singleton, so the singletons they need
+      become direct dependencies of the singleton.
+     * @return Nearest singletons the bean depends on.
+     */
+    private Set<Key<?>> getSingletonDependencies(Key<?> key) {
+        Set<Key<?>> dependencies = singletonDependencies.get(key);
+        if (dependencies != null) {
+            return dependencies;
+        }
+        dependencies = new LinkedHashSet<>();
+        Binding binding = container.get(key);
+        Key<?>[] dependencyKeys = binding.getDependencyKeys();
+        for (int i = 0; i < dependencyKeys.length; i++) {
+            Binding dependencyBinding = container.get(dependencyKeys[i]);
+            if (dependencyBinding == null || binding.isDeferredDependency(i)) {
+                continue;                                   //bound in the parent injector or built on first use
+            }
+            Key<?> dependency = dependencyKeys[i];
+            if (dependencyBinding.getScope() == BeanScope.SINGLETON) {
+                dependencies.add(dependency);
+            } else {
+                dependencies.addAll(getSingletonDependencies(dependency));
+            }
+        }
+        dependencies = Collections.unmodifiableSet(dependencies);
+        singletonDependencies.put(key, dependencies);
+        return dependencies;
+    }
+}
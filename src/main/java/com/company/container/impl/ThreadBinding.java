@@ -0,0 +1,49 @@
+package com.company.container.impl;
+
+import com.company.enm.BeanScope;
+
+/**
+ * Builds one bean per thread, so beans that are not thread safe can be reused without locks.
+ * The bean belongs to the Java thread that requested it: a virtual thread gets its own bean,
+ * not the one of its carrier thread. Beans are not released when a thread ends its task, threads
+ * of a pool keep them until Injector.releaseThreadScope() is called on them.
+ */
+final class ThreadBinding extends Binding {
+
+    private final ConstructionPlan plan;
+    private final ThreadLocal<Object> instances = new ThreadLocal<>();
+
+    ThreadBinding(ConstructionPlan plan) {
+        super(plan.getKey());
+        this.plan = plan;
+    }
+
+    @Override
+    BeanScope getScope() {
+        return BeanScope.THREAD;
+    }
+
+    @Override
+    Object getInstance(InjectorImpl injector) {
+        Object bean = instances.get();
+        if (bean == null) {
+            bean = injector.buildBean(plan, BeanScope.THREAD);
+            instances.set(bean);
+        }
+        return bean;
+    }
+
+    /**
+     * @return Bean of the current thread, removed from this binding, or null if the thread has none.
+     */
+    Object release() {
+        Object bean = instances.get();
+        instances.remove();
+        return bean;
+    }
+
+    @Override
+    ConstructionPlan getPlan() {
+        return plan;
+    }
+}
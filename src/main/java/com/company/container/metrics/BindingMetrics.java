@@ -0,0 +1,111 @@
+package com.company.container.metrics;
+
+import com.company.container.Key;
+
+/**
+ * Snapshot of the metrics of one binding. Times are in nanoseconds,
+ * percentiles are accurate to a power of two.
+ */
+public class BindingMetrics {
+
+    private final Key<?> key;
+    private final long constructions;
+    private final long totalNanos;
+    private final long selfNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long selfP50Nanos;
+    private final long selfP99Nanos;
+    private final long singletonInitializationNanos;
+    private final long failures;
+
+    public BindingMetrics(Key<?> key, long constructions, long totalNanos, long selfNanos, long p50Nanos,
+                          long p99Nanos, long selfP50Nanos, long selfP99Nanos, long singletonInitializationNanos,
+                          long failures) {
+        this.key = key;
+        this.constructions = constructions;
+        this.totalNanos = totalNanos;
+        this.selfNanos = selfNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.selfP50Nanos = selfP50Nanos;
+        this.selfP99Nanos = selfP99Nanos;
+        this.singletonInitializationNanos = singletonInitializationNanos;
+        this.failures = failures;
+    }
+
+    public Key<?> getKey() {
+        return key;
+    }
+
+    public long getConstructions() {
+        return constructions;
+    }
+
+    /**
+     * @return Cumulative construction time including dependencies.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return Cumulative construction time excluding dependencies.
+     */
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    /**
+     * @return Median construction time including dependencies.
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return 99th percentile of the construction time including dependencies.
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return Median construction time excluding dependencies.
+     */
+    public long getSelfP50Nanos() {
+        return selfP50Nanos;
+    }
+
+    /**
+     * @return 99th percentile of the construction time excluding dependencies.
+     */
+    public long getSelfP99Nanos() {
+        return selfP99Nanos;
+    }
+
+    /**
+     * @return Latency of the first access of a singleton or 0, if the binding is not an initialized singleton.
+     */
+    public long getSingletonInitializationNanos() {
+        return singletonInitializationNanos;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return key
+                + " constructions=" + constructions
+                + " totalNanos=" + totalNanos
+                + " selfNanos=" + selfNanos
+                + " p50Nanos=" + p50Nanos
+                + " p99Nanos=" + p99Nanos
+                + " selfP50Nanos=" + selfP50Nanos
+                + " selfP99Nanos=" + selfP99Nanos
+                + " singletonInitializationNanos=" + singletonInitializationNanos
+                + " failures=" + failures;
+    }
+}
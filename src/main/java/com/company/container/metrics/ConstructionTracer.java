@@ -0,0 +1,261 @@
+package com.company.container.metrics;
+
+import com.company.container.Key;
+import com.company.enm.BeanScope;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records a span for every bean built by an injector, pass it to the injector constructor to turn tracing on.
+ * Spans of beans built while building another bean are its children, so every top-level request
+ * or warm-up task is the root of a span tree. Finished spans are written to a ring buffer,
+ * the oldest ones are overwritten once it is full.
+ * The spans can be exported as collapsed stacks for flame graphs or as a Chrome trace.
+ */
+public class ConstructionTracer {
+
+    private final AtomicReferenceArray<Span> buffer;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final long originNanos = System.nanoTime();
+
+    /**
+     * @param capacity number of spans kept, rounded up to a power of two.
+     */
+    public ConstructionTracer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Called by the injector before it builds a bean on the current thread.
+     * @return Open span of the bean, a child of the span open on this thread, if there is one.
+     */
+    public Span begin(Key<?> key, BeanScope scope) {
+        Span parent = current.get();
+        Span span = new Span(sequence.incrementAndGet(), parent, key, scope, Thread.currentThread());
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Called by the injector after the bean is built or has failed, spans of a thread are ended in reverse order.
+     */
+    public void end(Span span, boolean failed) {
+        span.totalNanos = System.nanoTime() - span.startNanos;
+        span.failed = failed;
+        Span parent = span.parent;
+        if (parent != null) {
+            parent.dependencyNanos += span.totalNanos;
+            current.set(parent);
+        } else {
+            current.remove();
+        }
+        span.parent = null;                                 //the buffer must not keep overwritten spans alive
+        buffer.set((int) span.id & mask, span);
+    }
+
+    /**
+     * @return Finished spans in the buffer, in the order they were started.
+     */
+    public List<Span> getSpans() {
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < buffer.length(); i++) {
+            Span span = buffer.get(i);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(Span::getId));
+        return spans;
+    }
+
+    /**
+     * Writes one line per distinct stack, the keys from the root to the bean separated by ';'
+      followed by the self time of the bean in nanoseconds. The format is read by flamegraph.pl and speedscope.
+     * A span whose parent was overwritten in the buffer is written as a root.
+     */
+    public void exportCollapsedStacks(Appendable output) throws IOException {
+        List<Span> spans = getSpans();
+        Map<Long, Span> spansById = new HashMap<>();
+        for (Span span : spans) {
+            spansById.put(span.id, span);
+        }
+        Map<String, Long> stacks = new TreeMap<>();
+        for (Span span : spans) {
+            StringBuilder stack = new StringBuilder(getFrameName(span));
+            for (Span parent = spansById.get(span.parentId); parent != null; parent = spansById.get(parent.parentId)) {
+                stack.insert(0, ';').insert(0, getFrameName(parent));
+            }
+            stacks.merge(stack.toString(), span.getSelfNanos(), Long::sum);
+        }
+        for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+            output.append(stack.getKey()).append(' ').append(Long.toString(stack.getValue()))
+                    .append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Writes the spans as complete events of the Chrome trace event format, one row per thread.
+     * Open the file in chrome://tracing or Perfetto.
+     */
+    public void exportChromeTrace(Appendable output) throws IOException {
+        output.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (Span span : getSpans()) {
+            output.append(first ? "\n" : ",\n");
+            first = false;
+            output.append("{\"name\":\"").append(escape(span.key.toString()))
+                    .append("\",\"cat\":\"").append(span.scope.name())
+                    .append("\",\"ph\":\"X\",\"ts\":").append(toMicros(span.startNanos - originNanos))
+                    .append(",\"dur\":").append(toMicros(span.totalNanos))
+                    .append(",\"pid\":1,\"tid\":").append(Long.toString(span.threadId))
+                    .append(",\"args\":{\"thread\":\"").append(escape(span.threadName))
+                    .append("\",\"selfMicros\":").append(toMicros(span.getSelfNanos()))
+                    .append(",\"dependencyMicros\":").append(toMicros(span.dependencyNanos))
+                    .append(",\"failed\":").append(Boolean.toString(span.failed))
+                    .append("}}");
+        }
+        output.append("\n]}\n");
+    }
+
+    /**
+     * Drops all finished spans.
+     */
+    public void reset() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private static String getFrameName(Span span) {
+        return span.key.toString().replace(';', ',');
+    }
+
+    private static String toMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Construction of one bean. The times of an open span are still being measured.
+     */
+    public static final class Span {
+
+        private final long id;
+        private final long parentId;
+        private final Key<?> key;
+        private final BeanScope scope;
+        private final long threadId;
+        private final String threadName;
+        private final long startNanos = System.nanoTime();
+        private Span parent;
+        private long totalNanos;
+        private long dependencyNanos;
+        private boolean failed;
+
+        private Span(long id, Span parent, Key<?> key, BeanScope scope, Thread thread) {
+            this.id = id;
+            this.parent = parent;
+            this.parentId = parent != null ? parent.id : 0;
+            this.key = key;
+            this.scope = scope;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return Id of the span of the bean that needed this one or 0, if this span is a root.
+         */
+        public long getParentId() {
+            return parentId;
+        }
+
+        public Key<?> getKey() {
+            return key;
+        }
+
+        public BeanScope getScope() {
+            return scope;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * @return Start time in System.nanoTime() units.
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * @return Time spent on the bean including its dependencies.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return Time spent building the dependencies of the bean.
+         */
+        public long getDependencyNanos() {
+            return dependencyNanos;
+        }
+
+        /**
+         * @return Time spent in the constructor, the injected members and the init callbacks of the bean only.
+         */
+        public long getSelfNanos() {
+            return totalNanos - dependencyNanos;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return scope + " " + key + " total=" + totalNanos + "ns self=" + getSelfNanos() + "ns thread=" + threadName
+                    + (failed ? " failed" : "");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.company.container.metrics;
+
+import com.company.container.InjectionListener;
+import com.company.container.Key;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory per-binding metrics, kept per binding key, so qualified and generic bindings of one class are apart.
+ * Register it as the listener of an injector and call snapshot() to read them.
+ * All counters are striped, so threads building beans concurrently do not contend on them.
+ */
+public class InjectionMetrics implements InjectionListener {
+
+    private final Map<Key<?>, Counters> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onBeanConstructed(Key<?> key, long totalNanos, long selfNanos) {
+        Counters bindingCounters = getCounters(key);
+        bindingCounters.constructions.increment();
+        bindingCounters.totalNanos.add(totalNanos);
+        bindingCounters.selfNanos.add(selfNanos);
+        bindingCounters.histogram.record(totalNanos);
+        bindingCounters.selfHistogram.record(selfNanos);
+    }
+
+    @Override
+    public void onSingletonInitialized(Key<?> key, long nanos) {
+        getCounters(key).singletonInitializationNanos = nanos;
+    }
+
+    @Override
+    public void onResolutionFailure(Key<?> key, Throwable failure) {
+        getCounters(key).failures.increment();
+    }
+
+    /**
+     * @return Metrics of every binding that has been built or failed, ordered by key name.
+     */
+    public Map<Key<?>, BindingMetrics> snapshot() {
+        Map<Key<?>, BindingMetrics> snapshot = new TreeMap<>(Comparator.comparing(Key::toString));
+        for (Map.Entry<Key<?>, Counters> entry : counters.entrySet()) {
+            Counters bindingCounters = entry.getValue();
+            snapshot.put(entry.getKey(), new BindingMetrics(entry.getKey(),
+                    bindingCounters.constructions.sum(),
+                    bindingCounters.totalNanos.sum(),
+                    bindingCounters.selfNanos.sum(),
+                    bindingCounters.histogram.getPercentile(50),
+                    bindingCounters.histogram.getPercentile(99),
+                    bindingCounters.selfHistogram.getPercentile(50),
+                    bindingCounters.selfHistogram.getPercentile(99),
+                    bindingCounters.singletonInitializationNanos,
+                    bindingCounters.failures.sum()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes one line per binding, suitable for a plain text ops endpoint.
+     */
+    public void export(Appendable output) throws IOException {
+        for (BindingMetrics metrics : snapshot().values()) {
+            output.append(metrics.toString()).append(System.lineSeparator());
+        }
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+
+    private Counters getCounters(Key<?> key) {
+        Counters bindingCounters = counters.get(key);
+        if (bindingCounters == null) {
+            bindingCounters = counters.computeIfAbsent(key, ignored -> new Counters());
+        }
+        return bindingCounters;
+    }
+
+    private static final class Counters {
+
+        private final LongAdder constructions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LatencyHistogram selfHistogram = new LatencyHistogram();
+        private volatile long singletonInitializationNanos;
+    }
+}
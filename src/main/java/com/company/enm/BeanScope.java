@@ -2,5 +2,5 @@ package com.company.enm;
 
 public enum BeanScope {
 
-    SINGLETON, PROTOTYPE
+    SINGLETON, PROTOTYPE, THREAD, REQUEST, CUSTOM, POOLED
 }
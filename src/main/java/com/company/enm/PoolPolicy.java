@@ -0,0 +1,17 @@
+package com.company.enm;
+
+/**
+ * What a pool does when all of its beans are in use.
+ */
+public enum PoolPolicy {
+
+    /**
+     * Creates an extra bean, it is discarded on release if the pool is already full.
+     */
+    GROW,
+
+    /**
+     * Waits until a bean is released.
+     */
+    BLOCK
+}
@@ -0,0 +1,10 @@
+package com.company.exception;
+
+import com.company.container.Key;
+
+public class BeanCreationException extends InjectionException {
+
+    public BeanCreationException(Key<?> key, Throwable cause) {
+        super(key, "Can not create " + key, cause);
+    }
+}
@@ -1,4 +1,17 @@
 package com.company.exception;
 
-public class BindingNotFoundException extends RuntimeException {
+import com.company.container.Key;
+
+public class BindingNotFoundException extends InjectionException {
+
+    public BindingNotFoundException() {
+    }
+
+    public BindingNotFoundException(String message) {
+        super(message);
+    }
+
+    public BindingNotFoundException(Key<?> key) {
+        super(key, "No binding for " + key);
+    }
 }
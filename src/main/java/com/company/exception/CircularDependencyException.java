@@ -0,0 +1,17 @@
+package com.company.exception;
+
+import com.company.container.Key;
+
+public class CircularDependencyException extends InjectionException {
+
+    public CircularDependencyException() {
+    }
+
+    public CircularDependencyException(String message) {
+        super(message);
+    }
+
+    public CircularDependencyException(Key<?> key) {
+        super(key, "Circular dependency on " + key);
+    }
+}
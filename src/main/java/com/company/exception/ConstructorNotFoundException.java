@@ -1,4 +1,13 @@
 package com.company.exception;
 
-public class ConstructorNotFoundException extends RuntimeException {
+import com.company.container.Key;
+
+public class ConstructorNotFoundException extends InjectionException {
+
+    public ConstructorNotFoundException() {
+    }
+
+    public ConstructorNotFoundException(Key<?> key, Class<?> impl) {
+        super(key, impl.getName() + " has neither an @Inject constructor nor a public constructor without arguments");
+    }
 }
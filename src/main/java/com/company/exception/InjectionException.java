@@ -0,0 +1,100 @@
+package com.company.exception;
+
+import com.company.container.Key;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Base of all injection failures. Carries the key that failed and the path of the beans that were being built,
+ * the outermost first. The path is prepended while the failure unwinds through the enclosing beans,
+ * so collecting it costs nothing unless something fails.
+ */
+public class InjectionException extends RuntimeException {
+
+    private final Key<?> key;
+    private final Deque<Key<?>> path;
+    private boolean reported;
+
+    public InjectionException() {
+        this(null, null, null);
+    }
+
+    public InjectionException(String message) {
+        this(null, message, null);
+    }
+
+    public InjectionException(Key<?> key, String message) {
+        this(key, message, null);
+    }
+
+    public InjectionException(Key<?> key, String message, Throwable cause) {
+        super(message, cause);
+        this.key = key;
+        this.path = new ArrayDeque<>();
+    }
+
+    /**
+     * @return Key that failed or null, if it is not known.
+     */
+    public Key<?> getKey() {
+        return key;
+    }
+
+    /**
+     * @return Keys from the outermost requested bean to the failed key.
+     */
+    public List<Key<?>> getDependencyPath() {
+        List<Key<?>> dependencyPath = new ArrayList<>(path);
+        if (key != null && (path.isEmpty() || !key.equals(path.peekLast()))) {
+            dependencyPath.add(key);
+        }
+        return Collections.unmodifiableList(dependencyPath);
+    }
+
+    /**
+     * Adds the key of an enclosing bean to the start of the path.
+     * @return This exception.
+     */
+    public InjectionException prependPath(Key<?> dependent) {
+        path.addFirst(dependent);
+        return this;
+    }
+
+    /**
+     * Marks the failure as reported to the injection listener, so the enclosing beans do not report it again.
+     * The failure unwinds on one thread, so the flag needs no synchronization.
+     * @return true if the failure had not been reported before.
+     */
+    public boolean markReported() {
+        if (reported) {
+            return false;
+        }
+        reported = true;
+        return true;
+    }
+
+    /**
+     * @return Message followed by the dependency path, if the failure happened below the requested bean.
+     */
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        List<Key<?>> dependencyPath = getDependencyPath();
+        if (dependencyPath.size() < 2) {
+            return message;
+        }
+        StringBuilder description = new StringBuilder(message != null ? message + ": " : "");
+        for (Iterator<Key<?>> iterator = dependencyPath.iterator(); iterator.hasNext(); ) {
+            description.append(iterator.next());
+            if (iterator.hasNext()) {
+                description.append(" -> ");
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.exception;
+
+import com.company.container.Key;
+
+public class ScopeViolationException extends InjectionException {
+
+    public ScopeViolationException() {
+    }
+
+    public ScopeViolationException(String message) {
+        super(message);
+    }
+
+    public ScopeViolationException(Key<?> key, String message) {
+        super(key, message);
+    }
+}
@@ -1,4 +1,13 @@
 package com.company.exception;
 
-public class TooManyConstructorsException extends RuntimeException {
+import com.company.container.Key;
+
+public class TooManyConstructorsException extends InjectionException {
+
+    public TooManyConstructorsException() {
+    }
+
+    public TooManyConstructorsException(Key<?> key, Class<?> impl) {
+        super(key, impl.getName() + " has more than one @Inject constructor");
+    }
 }
@@ -0,0 +1,15 @@
+package com.company.testclass.testbean;
+
+public class ClosableBean implements AutoCloseable {
+
+    private boolean closed;
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.testclass.testbean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountingBean {
+
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    public CountingBean() {
+        CREATED.incrementAndGet();
+        try {
+            Thread.sleep(10);                       //slow constructor widens the race window
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static int getCreated() {
+        return CREATED.get();
+    }
+
+    public static void reset() {
+        CREATED.set(0);
+    }
+}
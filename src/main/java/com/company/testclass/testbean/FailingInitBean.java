@@ -0,0 +1,11 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.PostConstruct;
+
+public class FailingInitBean {
+
+    @PostConstruct
+    public void init() {
+        throw new IllegalStateException("Init failed");
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+
+public class FailingInitClient {
+
+    private final FailingInitBean failingInitBean;
+
+    @Inject
+    public FailingInitClient(FailingInitBean failingInitBean) {
+        this.failingInitBean = failingInitBean;
+    }
+
+    public FailingInitBean getFailingInitBean() {
+        return failingInitBean;
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.annotation.Lazy;
+
+public class LazyHolder {
+
+    private final TestClass testClass;
+
+    @Inject
+    public LazyHolder(@Lazy TestClass testClass) {
+        this.testClass = testClass;
+    }
+
+    public TestClass getTestClass() {
+        return testClass;
+    }
+}
@@ -0,0 +1,36 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.PostConstruct;
+
+import java.util.concurrent.CompletableFuture;
+
+public class LifecycleBean implements AutoCloseable {
+
+    private volatile boolean opened;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public CompletableFuture<Void> open() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(20);                   //slow I/O
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            opened = true;
+        });
+    }
+
+    public boolean isOpened() {
+        return opened;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
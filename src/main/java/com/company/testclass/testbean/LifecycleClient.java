@@ -0,0 +1,40 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.annotation.PostConstruct;
+
+public class LifecycleClient implements AutoCloseable {
+
+    private final LifecycleBean lifecycleBean;
+    private volatile boolean dependencyOpenedAtInit;
+    private volatile boolean dependencyClosedFirst;
+    private volatile boolean closed;
+
+    @Inject
+    public LifecycleClient(LifecycleBean lifecycleBean) {
+        this.lifecycleBean = lifecycleBean;
+    }
+
+    @PostConstruct
+    public void init() {
+        dependencyOpenedAtInit = lifecycleBean.isOpened();
+    }
+
+    public boolean isDependencyOpenedAtInit() {
+        return dependencyOpenedAtInit;
+    }
+
+    public boolean isDependencyClosedFirst() {
+        return dependencyClosedFirst;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        dependencyClosedFirst = lifecycleBean.isClosed();
+        closed = true;
+    }
+}
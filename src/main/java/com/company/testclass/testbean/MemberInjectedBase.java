@@ -0,0 +1,29 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+
+public abstract class MemberInjectedBase {
+
+    @Inject
+    private FirstDependency baseDependency;
+    private boolean baseFieldInjectedBeforeMethod;
+    private boolean subclassFieldInjectedBeforeMethod;
+
+    @Inject
+    public void initBase(SecondDependency secondDependency) {
+        baseFieldInjectedBeforeMethod = baseDependency != null;
+        subclassFieldInjectedBeforeMethod = getSubclassDependency() != null;
+    }
+
+    public abstract Object getSubclassDependency();
+
+    public boolean isBaseFieldInjectedBeforeMethod() {
+        return baseFieldInjectedBeforeMethod;
+    }
+
+    public boolean isSubclassFieldInjectedBeforeMethod() {
+        return subclassFieldInjectedBeforeMethod;
+    }
+}
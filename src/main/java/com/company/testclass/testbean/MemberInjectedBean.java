@@ -0,0 +1,25 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+
+public class MemberInjectedBean {
+
+    @Inject
+    private FirstDependency firstDependency;
+    private SecondDependency secondDependency;
+
+    @Inject
+    public void setSecondDependency(SecondDependency secondDependency) {
+        this.secondDependency = secondDependency;
+    }
+
+    public FirstDependency getFirstDependency() {
+        return firstDependency;
+    }
+
+    public SecondDependency getSecondDependency() {
+        return secondDependency;
+    }
+}
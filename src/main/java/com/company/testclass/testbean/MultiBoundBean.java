@@ -0,0 +1,34 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class MultiBoundBean {
+
+    private final Set<TestClass> testClasses;
+    private final Map<String, TestClass> testClassesByName;
+    private final Optional<LazyHolder> lazyHolder;
+
+    @Inject
+    public MultiBoundBean(Set<TestClass> testClasses, Map<String, TestClass> testClassesByName,
+                          Optional<LazyHolder> lazyHolder) {
+        this.testClasses = testClasses;
+        this.testClassesByName = testClassesByName;
+        this.lazyHolder = lazyHolder;
+    }
+
+    public Set<TestClass> getTestClasses() {
+        return testClasses;
+    }
+
+    public Map<String, TestClass> getTestClassesByName() {
+        return testClassesByName;
+    }
+
+    public Optional<LazyHolder> getLazyHolder() {
+        return lazyHolder;
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.annotation.Named;
+import com.company.testclass.testdependecy.FirstDependency;
+
+import java.util.List;
+
+public class QualifiedBean {
+
+    private final FirstDependency primary;
+    private final FirstDependency secondary;
+    private final List<String> names;
+
+    @Inject
+    public QualifiedBean(@Named("primary") FirstDependency primary, FirstDependency secondary, List<String> names) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.names = names;
+    }
+
+    public FirstDependency getPrimary() {
+        return primary;
+    }
+
+    public FirstDependency getSecondary() {
+        return secondary;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+}
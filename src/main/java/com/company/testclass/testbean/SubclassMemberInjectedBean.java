@@ -0,0 +1,15 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Inject;
+import com.company.testclass.testdependecy.SecondDependency;
+
+public class SubclassMemberInjectedBean extends MemberInjectedBase {
+
+    @Inject
+    private SecondDependency subclassDependency;
+
+    @Override
+    public Object getSubclassDependency() {
+        return subclassDependency;
+    }
+}
@@ -0,0 +1,19 @@
+package com.company.testclass.testbean;
+
+import com.company.annotation.Provides;
+import com.company.enm.BeanScope;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+
+public class TestModule {
+
+    @Provides(scope = BeanScope.SINGLETON)
+    FirstDependency firstDependency() {
+        return new FirstDependency();
+    }
+
+    @Provides
+    public TestClass testClass(FirstDependency firstDependency, SecondDependency secondDependency) {
+        return new Correct(firstDependency, secondDependency);
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ConcurrentClient {
+
+    private final ConcurrentShared shared;
+    private final ConcurrentDependent dependent;
+
+    @Inject
+    public ConcurrentClient(ConcurrentShared shared, ConcurrentDependent dependent) {
+        this.shared = shared;
+        this.dependent = dependent;
+    }
+
+    public ConcurrentShared getShared() {
+        return shared;
+    }
+
+    public ConcurrentDependent getDependent() {
+        return dependent;
+    }
+}
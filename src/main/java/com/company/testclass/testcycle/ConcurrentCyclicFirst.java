@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ConcurrentCyclicFirst {
+
+    private final ConcurrentCyclicSecond cyclicSecond;
+
+    @Inject
+    public ConcurrentCyclicFirst(StartGate startGate, ConcurrentCyclicSecond cyclicSecond) {
+        this.cyclicSecond = cyclicSecond;
+    }
+
+    public ConcurrentCyclicSecond getCyclicSecond() {
+        return cyclicSecond;
+    }
+}
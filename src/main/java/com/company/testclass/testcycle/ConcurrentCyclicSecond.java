@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ConcurrentCyclicSecond {
+
+    private final ConcurrentCyclicFirst cyclicFirst;
+
+    @Inject
+    public ConcurrentCyclicSecond(StartGate startGate, ConcurrentCyclicFirst cyclicFirst) {
+        this.cyclicFirst = cyclicFirst;
+    }
+
+    public ConcurrentCyclicFirst getCyclicFirst() {
+        return cyclicFirst;
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ConcurrentDependent {
+
+    private final ConcurrentShared shared;
+
+    @Inject
+    public ConcurrentDependent(StartGate startGate, ConcurrentShared shared) {
+        this.shared = shared;
+    }
+
+    public ConcurrentShared getShared() {
+        return shared;
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ConcurrentShared {
+
+    @Inject
+    public ConcurrentShared(StartGate startGate) {
+        try {
+            Thread.sleep(100);                           //lets the other thread start waiting for this bean
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
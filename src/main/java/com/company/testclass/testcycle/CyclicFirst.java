@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class CyclicFirst {
+
+    private final CyclicSecond cyclicSecond;
+
+    @Inject
+    public CyclicFirst(CyclicSecond cyclicSecond) {
+        this.cyclicSecond = cyclicSecond;
+    }
+
+    public CyclicSecond getCyclicSecond() {
+        return cyclicSecond;
+    }
+}
@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class CyclicSecond {
+
+    private final CyclicFirst cyclicFirst;
+
+    @Inject
+    public CyclicSecond(CyclicFirst cyclicFirst) {
+        this.cyclicFirst = cyclicFirst;
+    }
+
+    public CyclicFirst getCyclicFirst() {
+        return cyclicFirst;
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+import com.company.container.Provider;
+
+public class ProviderCyclicFirst {
+
+    private final Provider<ProviderCyclicSecond> cyclicSecond;
+
+    @Inject
+    public ProviderCyclicFirst(Provider<ProviderCyclicSecond> cyclicSecond) {
+        this.cyclicSecond = cyclicSecond;
+    }
+
+    public ProviderCyclicSecond getCyclicSecond() {
+        return cyclicSecond.getInstance();
+    }
+}
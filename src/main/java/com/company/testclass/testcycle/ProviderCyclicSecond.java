@@ -0,0 +1,17 @@
+package com.company.testclass.testcycle;
+
+import com.company.annotation.Inject;
+
+public class ProviderCyclicSecond {
+
+    private final ProviderCyclicFirst cyclicFirst;
+
+    @Inject
+    public ProviderCyclicSecond(ProviderCyclicFirst cyclicFirst) {
+        this.cyclicFirst = cyclicFirst;
+    }
+
+    public ProviderCyclicFirst getCyclicFirst() {
+        return cyclicFirst;
+    }
+}
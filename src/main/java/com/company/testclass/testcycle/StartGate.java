@@ -0,0 +1,23 @@
+package com.company.testclass.testcycle;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StartGate {
+
+    private static volatile CountDownLatch latch = new CountDownLatch(0);
+
+    public StartGate() {
+        CountDownLatch current = latch;
+        current.countDown();
+        try {
+            current.await(5, TimeUnit.SECONDS);          //holds the building threads until all of them got here
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void reset(int parties) {
+        latch = new CountDownLatch(parties);
+    }
+}
@@ -0,0 +1,213 @@
+package com.company.di.impl;
+
+import com.company.container.Injector;
+import com.company.container.Provider;
+import com.company.container.impl.InjectorImpl;
+import com.company.enm.BeanScope;
+import com.company.testclass.testbean.Correct;
+import com.company.testclass.testbean.CountingBean;
+import com.company.testclass.testbean.TestClass;
+import com.company.testclass.testbean.WithoutAnnotations;
+import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testdependecy.SecondDependency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many-thread stress tests of the injector. Every test lines its threads up on a barrier,
+ * so they hit the injector at the same moment, and repeats the race several times.
+ */
+class InjectorConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int ROUNDS = 20;
+    private static final long MEASUREMENT_MILLIS = 100;
+
+    @Test
+    void testSingletonIsConstructedExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            CountingBean.reset();
+            Injector injector = new InjectorImpl();
+            injector.bindSingleton(CountingBean.class, CountingBean.class);
+            List<CountingBean> beans = runConcurrently(THREADS,
+                    () -> injector.getProvider(CountingBean.class).getInstance());
+            for (CountingBean bean : beans) {
+                assertSame(beans.get(0), bean);
+            }
+            assertEquals(1, CountingBean.getCreated());
+        }
+    }
+
+    @Test
+    void testSingletonIsFullyVisibleToAllThreads() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Injector injector = new InjectorImpl();
+            injector.bind(FirstDependency.class, FirstDependency.class);
+            injector.bind(SecondDependency.class, SecondDependency.class);
+            injector.bindSingleton(TestClass.class, Correct.class);
+            List<TestClass> beans = runConcurrently(THREADS, () -> {
+                Correct bean = (Correct) injector.getProvider(TestClass.class).getInstance();
+                assertNotNull(bean.getDependency1());               //fields are not final, the CAS publishes them
+                assertNotNull(bean.getDependency2());
+                assertNotNull(bean.getId());
+                return bean;
+            });
+            for (TestClass bean : beans) {
+                assertSame(beans.get(0), bean);
+            }
+        }
+    }
+
+    @Test
+    void testBindWhileResolving() throws Exception {
+        Injector injector = new InjectorImpl();
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        AtomicInteger tickets = new AtomicInteger();
+        AtomicBoolean binding = new AtomicBoolean(true);
+        LongAdder resolved = new LongAdder();
+        runConcurrently(THREADS, () -> {
+            if (tickets.getAndIncrement() == 0) {                                   //one writer, the rest read
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        injector.bind(TestClass.class, i % 2 == 0 ? WithoutAnnotations.class : Correct.class);
+                    }
+                    injector.bind(TestClass.class, WithoutAnnotations.class);
+                } finally {
+                    binding.set(false);
+                }
+                return null;
+            }
+            while (binding.get()) {
+                TestClass bean = injector.getProvider(TestClass.class).getInstance();
+                assertTrue(bean instanceof Correct || bean instanceof WithoutAnnotations);
+                resolved.increment();
+            }
+            return null;
+        });
+        assertTrue(resolved.sum() > 0);
+        assertTrue(injector.getProvider(TestClass.class).getInstance() instanceof WithoutAnnotations);
+    }
+
+    @Test
+    void testProvidersAreReused() throws Exception {
+        Injector injector = new InjectorImpl();
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class, BeanScope.PROTOTYPE);
+        List<Provider<TestClass>> providers = runConcurrently(THREADS, () -> injector.getProvider(TestClass.class));
+        for (Provider<TestClass> provider : providers) {
+            assertSame(providers.get(0), provider);
+        }
+        injector.freeze();
+        List<Provider<TestClass>> frozenProviders = runConcurrently(THREADS,
+                () -> injector.getProvider(TestClass.class));
+        for (Provider<TestClass> provider : frozenProviders) {
+            assertSame(frozenProviders.get(0), provider);
+        }
+    }
+
+    /**
+     * Publishes the resolutions per second of a singleton and a prototype with two dependencies
+      for every thread count, so scaling regressions across cores show up in the test reports.
+     */
+    @Test
+    void testThroughputPerThreadCount(TestReporter reporter) throws Exception {
+        Injector injector = new InjectorImpl();
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        injector.bindSingleton(CountingBean.class, CountingBean.class);
+        injector.freeze(true);
+        Provider<CountingBean> singleton = injector.getProvider(CountingBean.class);
+        Provider<TestClass> prototype = injector.getProvider(TestClass.class);
+        TreeSet<Integer> threadCounts = new TreeSet<>();
+        for (int threads = 1; threads < THREADS; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(THREADS);
+        for (int threads : threadCounts) {
+            long singletonThroughput = measureThroughput(threads, singleton);
+            long prototypeThroughput = measureThroughput(threads, prototype);
+            Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("threads", Integer.toString(threads));
+            entry.put("singletonOpsPerSecond", Long.toString(singletonThroughput));
+            entry.put("prototypeOpsPerSecond", Long.toString(prototypeThroughput));
+            reporter.publishEntry(entry);
+            assertTrue(singletonThroughput > 0);
+            assertTrue(prototypeThroughput > 0);
+        }
+    }
+
+    private static long measureThroughput(int threads, Provider<?> provider) throws Exception {
+        LongAdder operations = new LongAdder();
+        runConcurrently(threads, () -> {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MEASUREMENT_MILLIS);
+            long count = 0;
+            while (System.nanoTime() < end) {
+                for (int i = 0; i < 100; i++) {
+                    assertNotNull(provider.getInstance());
+                }
+                count += 100;
+            }
+            operations.add(count);
+            return null;
+        });
+        return operations.sum() * 1000 / MEASUREMENT_MILLIS;
+    }
+
+    /**
+     * Runs the task on the threads at the same moment.
+     * Failures of the task, assertion errors included, are rethrown on the calling thread.
+     * @return Results in thread order.
+     */
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
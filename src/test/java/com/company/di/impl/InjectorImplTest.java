@@ -2,26 +2,87 @@ package com.company.di.impl;
 
 
 import com.company.container.Injector;
+import com.company.container.BeanPool;
+import com.company.container.PoolStatistics;
+import com.company.container.Pooled;
+import com.company.container.Provider;
+import com.company.container.RequestContext;
+import com.company.container.WarmUpReport;
+import com.company.container.Instantiator;
+import com.company.container.Key;
+import com.company.container.impl.GeneratedFactoryInstantiationStrategy;
 import com.company.container.impl.InjectorImpl;
+import com.company.container.impl.MethodHandleInstantiationStrategy;
+import com.company.container.metrics.BindingMetrics;
+import com.company.container.metrics.ConstructionTracer;
+import com.company.container.metrics.InjectionMetrics;
+import com.company.container.impl.ReflectionInstantiationStrategy;
+import com.company.exception.BeanCreationException;
 import com.company.exception.BindingNotFoundException;
+import com.company.enm.BeanScope;
+import com.company.exception.CircularDependencyException;
+import com.company.exception.ScopeViolationException;
 import com.company.exception.ConstructorNotFoundException;
 import com.company.exception.TooManyConstructorsException;
+import com.company.testclass.testbean.ClosableBean;
 import com.company.testclass.testbean.Correct;
+import com.company.testclass.testbean.CountingBean;
+import com.company.testclass.testbean.FailingInitBean;
+import com.company.testclass.testbean.FailingInitClient;
+import com.company.testclass.testbean.LazyHolder;
+import com.company.testclass.testbean.LifecycleBean;
+import com.company.testclass.testbean.LifecycleClient;
+import com.company.testclass.testbean.MemberInjectedBean;
+import com.company.testclass.testbean.MultiBoundBean;
+import com.company.testclass.testbean.QualifiedBean;
+import com.company.testclass.testbean.SubclassMemberInjectedBean;
 import com.company.testclass.testbean.TestClass;
+import com.company.testclass.testbean.TestModule;
 import com.company.testclass.testbean.WithMultipleAnnotations;
 import com.company.testclass.testbean.WithoutAnnotations;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.company.testclass.testbean.WithoutAnnotationsAndEmptyConstructor;
 import com.company.testclass.testdependecy.FirstDependency;
+import com.company.testclass.testcycle.CyclicFirst;
+import com.company.testclass.testcycle.CyclicSecond;
+import com.company.testclass.testcycle.ConcurrentCyclicFirst;
+import com.company.testclass.testcycle.ConcurrentCyclicSecond;
+import com.company.testclass.testcycle.ConcurrentClient;
+import com.company.testclass.testcycle.ConcurrentDependent;
+import com.company.testclass.testcycle.ConcurrentShared;
+import com.company.testclass.testcycle.ProviderCyclicFirst;
+import com.company.testclass.testcycle.ProviderCyclicSecond;
+import com.company.testclass.testcycle.StartGate;
 import com.company.testclass.testdependecy.SecondDependency;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 class InjectorImplTest {
@@ -34,8 +95,7 @@ class InjectorImplTest {
     }
 
     @Test
-    void testBindWithoutAnnotation()
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    void testBindWithoutAnnotation() {
         injector.bind(TestClass.class, WithoutAnnotations.class);    //With empty constructor
         assertEquals(new WithoutAnnotations(), injector.getProvider(TestClass.class).getInstance());
 
@@ -54,8 +114,7 @@ class InjectorImplTest {
     }
 
     @Test
-    void testCorrectDependencyInjection()
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    void testCorrectDependencyInjection() {
         TestClass testClass = new Correct(new FirstDependency(), new SecondDependency());
         injector.bind(FirstDependency.class, FirstDependency.class);
         injector.bind(SecondDependency.class, SecondDependency.class);
@@ -67,18 +126,27 @@ class InjectorImplTest {
     void testWithMissingBeanToInject() {
         injector.bind(FirstDependency.class, FirstDependency.class); //For injections need FirstDependency and SecondDependency
         injector.bind(TestClass.class, Correct.class);
-        assertThrows(BindingNotFoundException.class, () -> injector.getProvider(TestClass.class));
+        assertThrows(BindingNotFoundException.class, () -> injector.getProvider(TestClass.class).getInstance());
     }
 
     @Test
-    void testWithMissingBeanInContainer()
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    void testMissingBeanDependencyPath() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        BindingNotFoundException e = assertThrows(BindingNotFoundException.class,
+                () -> injector.getProvider(TestClass.class).getInstance());
+        assertEquals(Key.of(SecondDependency.class), e.getKey());
+        assertEquals(Arrays.asList(Key.of(TestClass.class), Key.of(SecondDependency.class)),
+                new ArrayList<>(e.getDependencyPath()));
+    }
+
+    @Test
+    void testWithMissingBeanInContainer() {
         assertNull(injector.getProvider(TestClass.class).getInstance());
     }
 
     @Test
-    void testSingletonBind()
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    void testSingletonBind() {
         injector.bindSingleton(TestClass.class, Correct.class);
         injector.bind(FirstDependency.class, FirstDependency.class);
         injector.bind(SecondDependency.class, SecondDependency.class);
@@ -88,8 +156,7 @@ class InjectorImplTest {
     }
 
     @Test
-    void testPrototypeBind()
-            throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    void testPrototypeBind() {
         injector.bind(TestClass.class, Correct.class);
         injector.bind(FirstDependency.class, FirstDependency.class);
         injector.bind(SecondDependency.class, SecondDependency.class);
@@ -97,4 +164,567 @@ class InjectorImplTest {
         TestClass testClass2 = injector.getProvider(TestClass.class).getInstance();
         assertNotEquals(testClass1.getId(), testClass2.getId());
     }
+
+    @Test
+    void testReflectionInstantiationStrategy() {
+        injector = new InjectorImpl(new ReflectionInstantiationStrategy());
+        TestClass testClass = new Correct(new FirstDependency(), new SecondDependency());
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        assertEquals(testClass, injector.getProvider(TestClass.class).getInstance());
+    }
+
+    @Test
+    void testMethodHandleInstantiatorCachedPerClass() throws Exception {
+        Instantiator instantiator = new MethodHandleInstantiationStrategy().createInstantiator(FirstDependency.class.getConstructor());
+        assertSame(instantiator, new MethodHandleInstantiationStrategy().createInstantiator(FirstDependency.class.getConstructor()));
+        assertNotSame(instantiator.newInstance(new Object[0]), instantiator.newInstance(new Object[0]));
+    }
+
+    @Test
+    void testConcurrentSingletonInitialization() throws Exception {
+        CountingBean.reset();
+        injector.bindSingleton(CountingBean.class, CountingBean.class);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<CountingBean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> injector.getProvider(CountingBean.class).getInstance());
+            }
+            List<Future<CountingBean>> results = executor.invokeAll(tasks);
+            for (Future<CountingBean> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, CountingBean.getCreated());
+    }
+
+    @Test
+    void testCircularSingletonDependency() {
+        injector.bindSingleton(CyclicFirst.class, CyclicFirst.class);
+        injector.bindSingleton(CyclicSecond.class, CyclicSecond.class);
+        assertThrows(CircularDependencyException.class, () -> injector.getProvider(CyclicFirst.class).getInstance());
+    }
+
+    @Test
+    void testCircularSingletonDependencyAcrossThreads() throws Exception {
+        StartGate.reset(2);
+        injector.bind(StartGate.class, StartGate.class);
+        injector.bindSingleton(ConcurrentCyclicFirst.class, ConcurrentCyclicFirst.class);
+        injector.bindSingleton(ConcurrentCyclicSecond.class, ConcurrentCyclicSecond.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> injector.getProvider(ConcurrentCyclicFirst.class).getInstance());
+            Future<?> second = executor.submit(() -> injector.getProvider(ConcurrentCyclicSecond.class).getInstance());
+            for (Future<?> future : Arrays.asList(first, second)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof CircularDependencyException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAcyclicSingletonsSharedAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 10; i++) {
+                StartGate.reset(2);
+                injector = new InjectorImpl();
+                injector.bind(StartGate.class, StartGate.class);
+                injector.bind(ConcurrentClient.class, ConcurrentClient.class);
+                injector.bindSingleton(ConcurrentShared.class, ConcurrentShared.class);
+                injector.bindSingleton(ConcurrentDependent.class, ConcurrentDependent.class);
+                Future<ConcurrentClient> client = executor.submit(() -> injector.getProvider(ConcurrentClient.class).getInstance());
+                Future<ConcurrentDependent> dependent = executor.submit(() -> injector.getProvider(ConcurrentDependent.class).getInstance());
+                assertSame(dependent.get(10, TimeUnit.SECONDS), client.get(10, TimeUnit.SECONDS).getDependent());
+                assertSame(dependent.get().getShared(), client.get().getShared());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLazyPrototypeProvider() {
+        CountingBean.reset();
+        injector.bind(CountingBean.class, CountingBean.class);
+        Provider<CountingBean> provider = injector.getProvider(CountingBean.class);
+        assertSame(provider, injector.getProvider(CountingBean.class));
+        assertEquals(0, CountingBean.getCreated());
+        assertNotSame(provider.getInstance(), provider.getInstance());
+        assertEquals(2, CountingBean.getCreated());
+    }
+
+    @Test
+    void testFreezeWithMissingBean() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        assertThrows(BindingNotFoundException.class, () -> injector.freeze());
+    }
+
+    @Test
+    void testFreezeWithCircularDependency() {
+        injector.bind(CyclicFirst.class, CyclicFirst.class);
+        injector.bind(CyclicSecond.class, CyclicSecond.class);
+        assertThrows(CircularDependencyException.class, () -> injector.freeze());
+    }
+
+    @Test
+    void testFreezeInstantiatesSingletons() {
+        CountingBean.reset();
+        injector.bindSingleton(CountingBean.class, CountingBean.class);
+        injector.freeze(true);
+        assertEquals(1, CountingBean.getCreated());
+        assertThrows(IllegalStateException.class, () -> injector.bind(FirstDependency.class, FirstDependency.class));
+    }
+
+    @Test
+    void testWarmUp() {
+        CountingBean.reset();
+        injector.bindSingleton(CountingBean.class, CountingBean.class);
+        injector.bindSingleton(TestClass.class, Correct.class);
+        injector.bindSingleton(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        WarmUpReport report;
+        try {
+            report = injector.warmUp(executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, CountingBean.getCreated());
+        assertEquals(3, report.getInitializationNanos().size());
+        assertEquals(Key.of(CountingBean.class), report.getSlowest(1).get(0));
+    }
+
+    @Test
+    void testGeneratedFactory() throws Exception {
+        Instantiator instantiator = new GeneratedFactoryInstantiationStrategy(constructor -> {
+            throw new AssertionError("Factory is not generated for " + constructor);
+        }).createInstantiator(Correct.class.getConstructor(FirstDependency.class, SecondDependency.class));
+        Object[] arguments = {new FirstDependency(), new SecondDependency()};
+        assertEquals(new Correct(new FirstDependency(), new SecondDependency()), instantiator.newInstance(arguments));
+    }
+
+    @Test
+    void testInjectionMetrics() {
+        InjectionMetrics metrics = new InjectionMetrics();
+        injector = new InjectorImpl(new MethodHandleInstantiationStrategy(), metrics);
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bindSingleton(TestClass.class, Correct.class);
+        injector.getProvider(TestClass.class).getInstance();
+        injector.getProvider(TestClass.class).getInstance();
+        injector.getProvider(FirstDependency.class).getInstance();
+        Map<Key<?>, BindingMetrics> snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get(Key.of(TestClass.class)).getConstructions());
+        assertEquals(2, snapshot.get(Key.of(FirstDependency.class)).getConstructions());
+        assertTrue(snapshot.get(Key.of(TestClass.class)).getSingletonInitializationNanos() > 0);
+        assertTrue(snapshot.get(Key.of(TestClass.class)).getTotalNanos()
+                >= snapshot.get(Key.of(TestClass.class)).getSelfNanos());
+        assertTrue(snapshot.get(Key.of(TestClass.class)).getSelfP50Nanos() > 0);
+        assertTrue(snapshot.get(Key.of(TestClass.class)).getP99Nanos()
+                >= snapshot.get(Key.of(TestClass.class)).getSelfP99Nanos());
+    }
+
+    @Test
+    void testInjectionMetricsPerQualifiedKey() {
+        InjectionMetrics metrics = new InjectionMetrics();
+        injector = new InjectorImpl(new MethodHandleInstantiationStrategy(), metrics);
+        Key<FirstDependency> first = Key.of(FirstDependency.class).named("a");
+        Key<FirstDependency> second = Key.of(FirstDependency.class).named("b");
+        injector.bind(first, FirstDependency.class);
+        injector.bind(second, FirstDependency.class);
+        injector.getProvider(first).getInstance();
+        injector.getProvider(first).getInstance();
+        injector.getProvider(second).getInstance();
+        Map<Key<?>, BindingMetrics> snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(2, snapshot.get(first).getConstructions());
+        assertEquals(1, snapshot.get(second).getConstructions());
+        assertNull(snapshot.get(Key.of(FirstDependency.class)));
+    }
+
+    @Test
+    void testInjectionMetricsCountFailuresOnce() {
+        InjectionMetrics metrics = new InjectionMetrics();
+        injector = new InjectorImpl(new MethodHandleInstantiationStrategy(), metrics);
+        injector.bind(FailingInitClient.class, FailingInitClient.class);
+        assertThrows(BindingNotFoundException.class, () -> injector.getProvider(FailingInitClient.class).getInstance());
+        assertEquals(1, metrics.snapshot().get(Key.of(FailingInitClient.class)).getFailures());
+
+        metrics.reset();
+        injector.bind(FailingInitBean.class, FailingInitBean.class);
+        assertThrows(BeanCreationException.class, () -> injector.getProvider(FailingInitClient.class).getInstance());
+        Map<Key<?>, BindingMetrics> snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get(Key.of(FailingInitBean.class)).getFailures());
+        assertNull(snapshot.get(Key.of(FailingInitClient.class)));
+    }
+
+    @Test
+    void testProviderFailureNamesItsKey() {
+        InjectionMetrics metrics = new InjectionMetrics();
+        injector = new InjectorImpl(new MethodHandleInstantiationStrategy(), metrics);
+        injector.bindProvider(FirstDependency.class, () -> {
+            throw new UnsupportedOperationException();
+        });
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        BeanCreationException e = assertThrows(BeanCreationException.class,
+                () -> injector.getProvider(TestClass.class).getInstance());
+        assertEquals(Key.of(FirstDependency.class), e.getKey());
+        assertEquals(Arrays.asList(Key.of(TestClass.class), Key.of(FirstDependency.class)), e.getDependencyPath());
+        assertTrue(e.getCause() instanceof UnsupportedOperationException);
+        assertEquals(1, metrics.snapshot().get(Key.of(TestClass.class)).getFailures());
+    }
+
+    @Test
+    void testFrozenDependencyInjection() {
+        TestClass testClass = new Correct(new FirstDependency(), new SecondDependency());
+        injector.bind(TestClass.class, Correct.class);
+        injector.bindSingleton(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.freeze();
+        Correct bean = (Correct) injector.getProvider(TestClass.class).getInstance();
+        assertEquals(testClass, bean);
+        assertSame(bean.getDependency1(), injector.getProvider(FirstDependency.class).getInstance());
+    }
+
+    @Test
+    void testThreadScope() throws Exception {
+        injector.bind(FirstDependency.class, FirstDependency.class, BeanScope.THREAD);
+        Provider<FirstDependency> provider = injector.getProvider(FirstDependency.class);
+        FirstDependency bean = provider.getInstance();
+        assertSame(bean, provider.getInstance());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertNotSame(bean, executor.submit(provider::getInstance).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testReleaseThreadScope() {
+        injector.bind(ClosableBean.class, ClosableBean.class, BeanScope.THREAD);
+        Provider<ClosableBean> provider = injector.getProvider(ClosableBean.class);
+        ClosableBean bean = provider.getInstance();
+        injector.releaseThreadScope();
+        assertTrue(bean.isClosed());
+        assertNotSame(bean, provider.getInstance());
+    }
+
+    @Test
+    void testRequestScope() {
+        injector.bind(ClosableBean.class, ClosableBean.class, BeanScope.REQUEST);
+        Provider<ClosableBean> provider = injector.getProvider(ClosableBean.class);
+        BeanCreationException e = assertThrows(BeanCreationException.class, provider::getInstance);
+        assertEquals(Key.of(ClosableBean.class), e.getKey());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        ClosableBean bean;
+        try (RequestContext ignored = RequestContext.enter()) {
+            bean = provider.getInstance();
+            assertSame(bean, provider.getInstance());
+            assertFalse(bean.isClosed());
+        }
+        assertTrue(bean.isClosed());
+        assertNull(RequestContext.current());
+    }
+
+    @Test
+    void testBeanCreatedWhileRequestContextClosesIsClosed() {
+        RequestContext context = RequestContext.enter();
+        ClosableBean bean = new ClosableBean();
+        assertThrows(IllegalStateException.class, () -> context.computeIfAbsent(ClosableBean.class, () -> {
+            context.close();
+            return bean;
+        }));
+        assertTrue(bean.isClosed());
+        assertNull(RequestContext.current());
+    }
+
+    @Test
+    void testScopeViolation() {
+        injector.bind(FirstDependency.class, FirstDependency.class, BeanScope.REQUEST);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bindSingleton(TestClass.class, Correct.class);
+        assertThrows(ScopeViolationException.class, () -> injector.freeze());
+    }
+
+    @Test
+    void testPooledScope() {
+        injector.bindPooled(FirstDependency.class, FirstDependency.class, 1);
+        BeanPool<FirstDependency> pool = injector.getPool(FirstDependency.class);
+        FirstDependency bean;
+        try (Pooled<FirstDependency> pooled = pool.acquire()) {
+            bean = pooled.get();
+        }
+        try (Pooled<FirstDependency> pooled = pool.acquire()) {
+            assertSame(bean, pooled.get());
+        }
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getIdle());
+    }
+
+    @Test
+    void testExhaustedBlockingPool() throws InterruptedException {
+        injector.bindPooled(FirstDependency.class, FirstDependency.class, 1);
+        BeanPool<FirstDependency> pool = injector.getPool(FirstDependency.class);
+        try (Pooled<FirstDependency> ignored = pool.acquire()) {
+            assertNull(pool.tryAcquire(10, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(1, pool.getStatistics().getWaits());
+    }
+
+    @Test
+    void testChildInjector() {
+        injector.bindSingleton(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, WithoutAnnotations.class);
+        Injector child = injector.createChild();
+        child.bind(TestClass.class, Correct.class);
+        Correct bean = (Correct) child.getProvider(TestClass.class).getInstance();
+        assertSame(injector.getProvider(FirstDependency.class).getInstance(), bean.getDependency1());
+        assertSame(child.getProvider(FirstDependency.class), child.getProvider(FirstDependency.class));
+        assertEquals(new WithoutAnnotations(), injector.getProvider(TestClass.class).getInstance());
+        assertThrows(IllegalStateException.class, () -> injector.bind(TestClass.class, Correct.class));
+        child.freeze();
+        assertEquals(new SecondDependency(), child.getProvider(SecondDependency.class).getInstance());
+    }
+
+    @Test
+    void testChildInjectorsDefineNoClasses() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, WithoutAnnotations.class);
+        injector.createChild().bind(FirstDependency.class, FirstDependency.class);
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        long loaded = classLoading.getTotalLoadedClassCount();
+        for (int i = 0; i < 1000; i++) {
+            Injector child = injector.createChild();
+            child.bind(FirstDependency.class, FirstDependency.class);
+            child.bind(TestClass.class, Correct.class);
+            assertNotNull(child.getProvider(TestClass.class).getInstance());
+        }
+        assertTrue(classLoading.getTotalLoadedClassCount() - loaded < 100);
+    }
+
+    @Test
+    void testAutoBind() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.autoBind(BeanScope.SINGLETON, "com.company.testclass.testbean");
+        Correct bean = (Correct) injector.getProvider(TestClass.class).getInstance();
+        assertSame(bean, injector.getProvider(TestClass.class).getInstance());
+        assertNotNull(injector.getProvider(Correct.class).getInstance());
+        assertNull(injector.getProvider(WithMultipleAnnotations.class).getInstance());
+        assertNull(injector.getProvider(CyclicFirst.class).getInstance());
+        assertNull(injector.getProvider(AutoCloseable.class).getInstance());
+    }
+
+    @Test
+    void testAutoBindKeepsExistingBindings() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, WithoutAnnotations.class);
+        injector.bind(Correct.class, Correct.class);
+        injector.autoBind(BeanScope.SINGLETON, "com.company.testclass.testbean");
+        assertEquals(new WithoutAnnotations(), injector.getProvider(TestClass.class).getInstance());
+        assertNotSame(injector.getProvider(Correct.class).getInstance(),
+                injector.getProvider(Correct.class).getInstance());
+    }
+
+    @Test
+    void testSnapshot() throws Exception {
+        injector.bindSingleton(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        injector.bind(SubclassMemberInjectedBean.class, SubclassMemberInjectedBean.class);
+        injector.bindSingleton(LifecycleBean.class, LifecycleBean.class);
+        injector.freeze();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        injector.saveSnapshot(out);
+        byte[] snapshot = out.toByteArray();
+
+        Injector restored = new InjectorImpl();
+        restored.restoreSnapshot(new ByteArrayInputStream(snapshot));
+        Correct bean = (Correct) restored.getProvider(TestClass.class).getInstance();
+        assertSame(restored.getProvider(FirstDependency.class).getInstance(), bean.getDependency1());
+        SubclassMemberInjectedBean memberInjected = restored.getProvider(SubclassMemberInjectedBean.class).getInstance();
+        assertNotNull(memberInjected.getSubclassDependency());
+        assertTrue(memberInjected.isBaseFieldInjectedBeforeMethod());
+        assertTrue(restored.getProvider(LifecycleBean.class).getInstance().isOpened());
+        assertThrows(IllegalStateException.class, () -> restored.bind(TestClass.class, Correct.class));
+
+        snapshot[snapshot.length / 2] ^= 1;
+        assertThrows(IOException.class, () -> new InjectorImpl().restoreSnapshot(new ByteArrayInputStream(snapshot)));
+    }
+
+    @Test
+    void testMemberInjection() {
+        injector.bindSingleton(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(MemberInjectedBean.class, MemberInjectedBean.class);
+        MemberInjectedBean bean = injector.getProvider(MemberInjectedBean.class).getInstance();
+        assertSame(injector.getProvider(FirstDependency.class).getInstance(), bean.getFirstDependency());
+        assertNotNull(bean.getSecondDependency());
+
+        MemberInjectedBean created = new MemberInjectedBean();
+        injector.injectMembers(created);
+        assertSame(bean.getFirstDependency(), created.getFirstDependency());
+    }
+
+    @Test
+    void testMemberInjectionOrderPerClass() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(SubclassMemberInjectedBean.class, SubclassMemberInjectedBean.class);
+        SubclassMemberInjectedBean bean = injector.getProvider(SubclassMemberInjectedBean.class).getInstance();
+        assertTrue(bean.isBaseFieldInjectedBeforeMethod());
+        assertFalse(bean.isSubclassFieldInjectedBeforeMethod());
+        assertNotNull(bean.getSubclassDependency());
+    }
+
+    @Test
+    void testFreezeWithMissingMemberDependency() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(MemberInjectedBean.class, MemberInjectedBean.class);
+        assertThrows(BindingNotFoundException.class, () -> injector.freeze());
+    }
+
+    @Test
+    void testProviderParameterBreaksCycle() {
+        injector.bindSingleton(ProviderCyclicFirst.class, ProviderCyclicFirst.class);
+        injector.bindSingleton(ProviderCyclicSecond.class, ProviderCyclicSecond.class);
+        injector.freeze(true);
+        ProviderCyclicFirst first = injector.getProvider(ProviderCyclicFirst.class).getInstance();
+        assertSame(first, first.getCyclicSecond().getCyclicFirst());
+    }
+
+    @Test
+    void testLazyParameter() {
+        injector.bind(TestClass.class, WithoutAnnotations.class);
+        injector.bind(LazyHolder.class, LazyHolder.class);
+        TestClass lazy = injector.getProvider(LazyHolder.class).getInstance().getTestClass();
+        assertTrue(Proxy.isProxyClass(lazy.getClass()));
+        assertEquals(lazy.getId(), lazy.getId());
+    }
+
+    @Test
+    void testInstanceAndProviderBindings() {
+        FirstDependency firstDependency = new FirstDependency();
+        injector.bindInstance(FirstDependency.class, firstDependency);
+        injector.bindProvider(SecondDependency.class, SecondDependency::new);
+        injector.bind(TestClass.class, Correct.class);
+        injector.freeze(true);
+        Correct bean = (Correct) injector.getProvider(TestClass.class).getInstance();
+        assertSame(firstDependency, bean.getDependency1());
+        assertNotSame(bean.getDependency2(), injector.getProvider(SecondDependency.class).getInstance());
+    }
+
+    @Test
+    void testProviderMethodModule() {
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.install(new TestModule());
+        injector.freeze();
+        Correct bean = (Correct) injector.getProvider(TestClass.class).getInstance();
+        assertSame(injector.getProvider(FirstDependency.class).getInstance(), bean.getDependency1());
+        assertNotSame(bean, injector.getProvider(TestClass.class).getInstance());
+    }
+
+    @Test
+    void testQualifiedAndGenericKeys() {
+        FirstDependency primary = new FirstDependency();
+        FirstDependency secondary = new FirstDependency();
+        List<String> names = new ArrayList<>();
+        injector.bindInstance(Key.of(FirstDependency.class).named("primary"), primary);
+        injector.bindInstance(FirstDependency.class, secondary);
+        injector.bindInstance(new Key<List<String>>() {}, names);
+        injector.bind(QualifiedBean.class, QualifiedBean.class);
+        injector.freeze();
+        QualifiedBean bean = injector.getProvider(QualifiedBean.class).getInstance();
+        assertSame(primary, bean.getPrimary());
+        assertSame(secondary, bean.getSecondary());
+        assertSame(names, bean.getNames());
+        assertSame(Key.of(FirstDependency.class).named("primary"), Key.of(FirstDependency.class).named("primary"));
+        assertNull(injector.getProvider(new Key<List<Integer>>() {}).getInstance());
+    }
+
+    @Test
+    void testInternedKeysAreNotRetained() throws InterruptedException {
+        WeakReference<Key<?>> key = new WeakReference<>(Key.of(FirstDependency.class).named("unreferenced"));
+        for (int i = 0; i < 50 && key.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(key.get());
+    }
+
+    @Test
+    void testMultibindingsAndOptional() {
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bindIntoSet(TestClass.class, WithoutAnnotations.class, BeanScope.SINGLETON);
+        injector.bindIntoSet(TestClass.class, Correct.class, BeanScope.SINGLETON);
+        injector.bindIntoMap(String.class, TestClass.class, "first", WithoutAnnotations.class);
+        assertThrows(IllegalArgumentException.class,
+                () -> injector.bindIntoMap(String.class, TestClass.class, "first", WithoutAnnotations.class));
+        injector.bind(MultiBoundBean.class, MultiBoundBean.class);
+        assertFalse(injector.getOptional(LazyHolder.class).isPresent());
+        injector.freeze();
+        MultiBoundBean bean = injector.getProvider(MultiBoundBean.class).getInstance();
+        assertEquals(2, bean.getTestClasses().size());
+        assertSame(bean.getTestClasses(), injector.getProvider(MultiBoundBean.class).getInstance().getTestClasses());
+        assertThrows(UnsupportedOperationException.class, () -> bean.getTestClasses().add(new WithoutAnnotations()));
+        assertTrue(bean.getTestClassesByName().get("first") instanceof WithoutAnnotations);
+        assertEquals(1, bean.getTestClassesByName().size());
+        assertFalse(bean.getLazyHolder().isPresent());
+        assertTrue(injector.getOptional(MultiBoundBean.class).isPresent());
+    }
+
+    @Test
+    void testLifecycle() {
+        injector.bindSingleton(LifecycleBean.class, LifecycleBean.class);
+        injector.bindSingleton(LifecycleClient.class, LifecycleClient.class);
+        injector.freeze(true);
+        LifecycleClient client = injector.getProvider(LifecycleClient.class).getInstance();
+        LifecycleBean bean = injector.getProvider(LifecycleBean.class).getInstance();
+        assertTrue(bean.isOpened());
+        assertTrue(client.isDependencyOpenedAtInit());
+        injector.close();
+        assertTrue(client.isClosed());
+        assertTrue(bean.isClosed());
+        assertFalse(client.isDependencyClosedFirst());
+    }
+
+    @Test
+    void testConstructionTracing() throws IOException {
+        ConstructionTracer tracer = new ConstructionTracer(16);
+        injector = new InjectorImpl(new MethodHandleInstantiationStrategy(), null, tracer);
+        injector.bind(FirstDependency.class, FirstDependency.class);
+        injector.bind(SecondDependency.class, SecondDependency.class);
+        injector.bind(TestClass.class, Correct.class);
+        injector.getProvider(TestClass.class).getInstance();
+        List<ConstructionTracer.Span> spans = tracer.getSpans();
+        assertEquals(3, spans.size());
+        ConstructionTracer.Span root = spans.get(0);
+        assertEquals(Key.of(TestClass.class), root.getKey());
+        assertEquals(0, root.getParentId());
+        assertEquals(root.getId(), spans.get(1).getParentId());
+        assertEquals(spans.get(1).getTotalNanos() + spans.get(2).getTotalNanos(), root.getDependencyNanos());
+        StringBuilder stacks = new StringBuilder();
+        tracer.exportCollapsedStacks(stacks);
+        assertTrue(stacks.toString().contains(TestClass.class.getName() + ";" + FirstDependency.class.getName() + " "));
+        StringBuilder trace = new StringBuilder();
+        tracer.exportChromeTrace(trace);
+        assertTrue(trace.toString().startsWith("{\"traceEvents\":["));
+        assertTrue(trace.toString().contains("\"cat\":\"PROTOTYPE\""));
+    }
 }